@@ -0,0 +1,294 @@
+package com.demo.inventory.catalog;
+
+import com.demo.inventory.service.InventoryService;
+import com.demo.inventory.service.StockTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the inventory catalog from a CSV snapshot and hot-swaps it into
+ * InventoryService.
+ *
+ * File format, one SKU per line, optional header line starting with "productId":
+ *   productId,productName,warehouseLocation,unitPrice,onHand
+ * Fields are not quoted and must not contain commas. unitPrice has at most
+ * two decimals.
+ *
+ * Loading steps:
+ * 1. Memory-map the file and split it into chunks on line boundaries
+ * 2. Parse the chunks in parallel, each into its own StockTable.Builder;
+ *    IDs and names are copied as raw UTF-8 bytes, never decoded
+ * 3. Regroup the chunks' rows by warehouse into new tables built off to the side
+ * 4. Swap them in with InventoryService.replaceCatalog
+ *
+ * The file is loaded at startup and reloaded whenever its modification time
+ * changes. A file that fails to parse leaves the current catalog in place.
+ */
+@Slf4j
+@Component
+public class CatalogLoader {
+
+    private static final int CHUNKS_PER_CORE = 4;
+    private static final byte[] HEADER = "productId".getBytes(StandardCharsets.US_ASCII);
+
+    private final InventoryService inventoryService;
+    private final Path path;
+    private final Duration refreshInterval;
+    private final Timer loadTimer;
+    private final ScheduledExecutorService refresher;
+
+    private FileTime loadedModifiedTime;
+
+    public CatalogLoader(InventoryService inventoryService,
+                         MeterRegistry meterRegistry,
+                         @Value("${inventory.catalog.path}") String path,
+                         @Value("${inventory.catalog.refresh-interval}") Duration refreshInterval) {
+        this.inventoryService = inventoryService;
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.refreshInterval = refreshInterval;
+        this.loadTimer = Timer.builder("inventory.catalog.load")
+                .description("Time to parse and swap in a catalog snapshot")
+                .register(meterRegistry);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (path == null) {
+            log.info("No catalog path configured, using built-in sample inventory");
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.toMillis() == inventoryService.catalogVersion()) {
+                // Recovered from a snapshot of this very file: no need to parse it again
+                log.info("Catalog {} unchanged since the recovered snapshot", path);
+                loadedModifiedTime = modified;
+            }
+        } catch (IOException e) {
+            log.warn("Cannot stat catalog {}", path, e);
+        }
+        refreshIfChanged();
+        long intervalMillis = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshIfChanged, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Reload the catalog if the file changed since the last successful load.
+     */
+    public synchronized void refreshIfChanged() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (modified.equals(loadedModifiedTime)) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, StockTable> tables = load(path);
+            inventoryService.replaceCatalog(tables, modified.toMillis());
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            loadedModifiedTime = modified;
+            log.info("Loaded catalog {} with {} SKUs in {} ms", path,
+                    tables.values().stream().mapToInt(StockTable::size).sum(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            // Also catches a catalog too large for the heap, which must not cancel future refreshes
+            log.error("Failed to load catalog {}, keeping current catalog", path, e);
+        }
+    }
+
+    /**
+     * Parse a catalog file into new, unpublished tables, one per warehouse.
+     */
+    public static Map<String, StockTable> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size);
+
+            List<MappedByteBuffer> chunks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]));
+            }
+
+            List<StockTable.Builder> parsed = chunks.parallelStream()
+                    .map(CatalogLoader::parseChunk)
+                    .toList();
+
+            return StockTable.buildPartitions(parsed);
+        }
+    }
+
+    /**
+     * Split the file into roughly equal chunks that start at line boundaries.
+     * Each chunk stays below 2 GB so it fits a single mapping.
+     */
+    private static long[] chunkBounds(FileChannel channel, long size) throws IOException {
+        int chunks = Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE;
+        long chunkSize = Math.max(Math.min(size / chunks + 1, Integer.MAX_VALUE / 2), 1 << 16);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = nextLineStart(channel, position, probe);
+            if (lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + chunkSize;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return Long.MAX_VALUE;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static StockTable.Builder parseChunk(MappedByteBuffer chunk) {
+        int limit = chunk.limit();
+        StockTable.Builder builder = StockTable.builder(limit / 48);
+        byte[] scratch = new byte[64];
+        int[] commas = new int[4];
+
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            int found = 0;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                if (chunk.get(lineEnd) == ',' && found < commas.length) {
+                    commas[found++] = lineEnd;
+                }
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            if (lineEnd > lineStart && !isHeader(chunk, lineStart)) {
+                if (found != commas.length) {
+                    throw new IllegalArgumentException("Malformed catalog line: " + text(chunk, lineStart, lineEnd, scratch));
+                }
+                builder.add(
+                        chunk, lineStart, commas[0],
+                        chunk, commas[0] + 1, commas[1],
+                        text(chunk, commas[1] + 1, commas[2], scratch),
+                        parseMinorUnits(chunk, commas[2] + 1, commas[3]),
+                        (int) parseQuantity(chunk, commas[3] + 1, lineEnd),
+                        0);
+            }
+            lineStart = next;
+        }
+        return builder;
+    }
+
+    private static boolean isHeader(MappedByteBuffer chunk, int start) {
+        if (chunk.limit() - start < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            if (chunk.get(start + i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(MappedByteBuffer chunk, int start, int end, byte[] scratch) {
+        int length = end - start;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        chunk.get(start, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse a decimal price such as 49.99 or 5 into minor units (cents).
+     */
+    private static long parseMinorUnits(MappedByteBuffer chunk, int start, int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Empty price at byte " + start + " of chunk");
+        }
+        long value = 0;
+        int decimals = -1;
+        for (int i = start; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (b >= '0' && b <= '9' && decimals < 2) {
+                value = value * 10 + (b - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid price at byte " + i + " of chunk");
+            }
+        }
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static long parseQuantity(MappedByteBuffer chunk, int start, int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Empty quantity at byte " + start + " of chunk");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("Invalid quantity at byte " + i + " of chunk");
+            }
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Quantity out of range at byte " + i + " of chunk");
+            }
+        }
+        return value;
+    }
+}
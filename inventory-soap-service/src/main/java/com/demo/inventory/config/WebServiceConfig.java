@@ -1,5 +1,8 @@
 package com.demo.inventory.config;
 
+import com.demo.inventory.endpoint.CheckInventoryStreamingServlet;
+import com.demo.inventory.service.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -30,6 +33,18 @@ public class WebServiceConfig extends WsConfigurerAdapter {
         return new ServletRegistrationBean<>(servlet, "/ws/*");
     }
 
+    /**
+     * Streaming CheckInventory for very large product lists; same request and
+     * response envelopes as the CheckInventory operation on /ws.
+     */
+    @Bean
+    public ServletRegistrationBean<CheckInventoryStreamingServlet> checkInventoryStreamingServlet(
+            InventoryService inventoryService,
+            @Value("${inventory.check.stream-chunk-size}") int chunkSize) {
+        return new ServletRegistrationBean<>(
+                new CheckInventoryStreamingServlet(inventoryService, chunkSize), "/ws/stream/check-inventory");
+    }
+
     @Bean(name = "inventory")
     public DefaultWsdl11Definition defaultWsdl11Definition(XsdSchema inventorySchema) {
         DefaultWsdl11Definition wsdl11Definition = new DefaultWsdl11Definition();
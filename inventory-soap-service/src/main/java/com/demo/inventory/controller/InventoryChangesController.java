@@ -0,0 +1,205 @@
+package com.demo.inventory.controller;
+
+import com.demo.inventory.service.InventoryChangeLog;
+import com.demo.inventory.service.InventoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events feed of inventory changes, the push counterpart of the
+ * GetInventoryChanges SOAP operation.
+ *
+ * Event stream for a subscriber:
+ * 1. If its cursor (since, or the Last-Event-ID header on reconnect) cannot
+ *    be resumed: one "snapshot" event per SKU, then "snapshot-end" whose ID
+ *    is the cursor to resume from
+ * 2. One "change" event per SKU change, with the change sequence as event ID
+ *
+ * A poller thread checks every subscriber each sse-poll-interval and hands
+ * those with new changes to the sender pool. Each subscriber is sent to by
+ * at most one sender at a time, from its own cursor in the change log, so
+ * a slow or stalled client, or a snapshot being sent to one subscriber,
+ * only delays that subscriber. The changes after its cursor are its send
+ * queue, bounded by sse-max-lag: a subscriber that falls further behind,
+ * or whose cursor drops out of the change log, is disconnected, and
+ * resumes from Last-Event-ID when it reconnects.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/inventory")
+public class InventoryChangesController {
+
+    private final InventoryService inventoryService;
+    private final int maxBatch;
+    private final long maxLag;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poller;
+    // One thread per subscriber being sent to at most
+    private final ExecutorService senders;
+
+    public InventoryChangesController(InventoryService inventoryService,
+                                      @Value("${inventory.changes.max-batch}") int maxBatch,
+                                      @Value("${inventory.changes.sse-max-lag}") long maxLag,
+                                      @Value("${inventory.changes.sse-poll-interval}") Duration pollInterval) {
+        this.inventoryService = inventoryService;
+        this.maxBatch = maxBatch;
+        this.maxLag = maxLag;
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-changes-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "inventory-changes-sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollAll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    /**
+     * Subscribe to inventory changes.
+     *
+     * @param since       last change sequence the client has applied; 0 to start with a snapshot
+     * @param lastEventId set by EventSource on reconnect; takes precedence over since
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(defaultValue = "0") long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscription subscription = new Subscription(emitter, lastEventId != null ? lastEventId : since);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        log.info("SSE subscriber added from sequence {} ({} subscribers)", subscription.cursor, subscriptions.size());
+        return emitter;
+    }
+
+    /**
+     * Hand every subscriber with something to send to a sender, unless one
+     * is already sending to it. Never blocks on a client.
+     */
+    private void pollAll() {
+        long latest = inventoryService.latestChangeSequence();
+        for (Subscription subscription : subscriptions) {
+            if ((subscription.cursor < latest || !subscription.live) && subscription.sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(() -> send(subscription));
+                } catch (RejectedExecutionException e) {
+                    subscription.sending.set(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send a subscriber what it is missing. Runs on a sender thread.
+     */
+    private void send(Subscription subscription) {
+        try {
+            poll(subscription);
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            // Client went away
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(e);
+        } catch (RuntimeException e) {
+            log.error("Failed to push inventory changes", e);
+        } finally {
+            subscription.sending.set(false);
+        }
+    }
+
+    private void poll(Subscription subscription) throws IOException {
+        List<InventoryChangeLog.Change> changes;
+        while ((changes = inventoryService.changesAfter(subscription.cursor, maxBatch)) != null && !changes.isEmpty()) {
+            if (subscription.live && inventoryService.latestChangeSequence() - subscription.cursor > maxLag) {
+                drop(subscription, "more than " + maxLag + " changes behind");
+                return;
+            }
+            for (InventoryChangeLog.Change change : changes) {
+                subscription.emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.sequence()))
+                        .name("change")
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+            subscription.cursor = changes.get(changes.size() - 1).sequence();
+        }
+        if (changes == null) {
+            if (subscription.live) {
+                drop(subscription, "cursor dropped out of the change log");
+                return;
+            }
+            long cursor = inventoryService.snapshot(item -> {
+                try {
+                    subscription.emitter.send(SseEmitter.event()
+                            .name("snapshot")
+                            .data(item, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            subscription.emitter.send(SseEmitter.event()
+                    .id(Long.toString(cursor))
+                    .name("snapshot-end")
+                    .data(Map.of("nextSequence", cursor), MediaType.APPLICATION_JSON));
+            subscription.cursor = cursor;
+        }
+        subscription.live = true;
+    }
+
+    /**
+     * Disconnect a subscriber that fell behind; it resumes from its
+     * Last-Event-ID, or takes a snapshot, when it reconnects.
+     */
+    private void drop(Subscription subscription, String reason) {
+        log.warn("Dropping SSE subscriber at sequence {}: {}", subscription.cursor, reason);
+        subscriptions.remove(subscription);
+        subscription.emitter.complete();
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        // Set while a sender owns the subscription; only that sender updates the cursor
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+        // Caught up once: from then on, falling behind disconnects instead of sending a snapshot
+        private volatile boolean live;
+
+        private Subscription(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
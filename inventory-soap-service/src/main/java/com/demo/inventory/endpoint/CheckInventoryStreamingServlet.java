@@ -0,0 +1,218 @@
+package com.demo.inventory.endpoint;
+
+import com.demo.inventory.config.WebServiceConfig;
+import com.demo.inventory.service.InventoryService;
+import com.demo.xmltime.XmlTime;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming variant of the CheckInventory operation, for very large product lists.
+ *
+ * Takes the same SOAP 1.1 CheckInventoryRequest envelope and returns the same
+ * CheckInventoryResponse envelope as InventoryEndpoint, but never holds the
+ * whole list in memory:
+ * 1. Product IDs are read from the request with StAX, chunkSize at a time
+ * 2. Each chunk is resolved and its InventoryItemType elements are written
+ *    straight to the response stream, which is flushed per chunk
+ * 3. checkedAt closes the response once the request is exhausted
+ *
+ * Memory use is bounded by the chunk size, not by the request size. The
+ * response is committed with the first chunk, so an error after that point
+ * can only abort the response, not turn it into a SOAP fault.
+ */
+@Slf4j
+public class CheckInventoryStreamingServlet extends HttpServlet {
+
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String NS = WebServiceConfig.NAMESPACE_URI;
+
+    private final InventoryService inventoryService;
+    private final int chunkSize;
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+
+    public CheckInventoryStreamingServlet(InventoryService inventoryService, int chunkSize) {
+        this.inventoryService = inventoryService;
+        this.chunkSize = chunkSize;
+        this.inputFactory = XMLInputFactory.newFactory();
+        // No DTDs or external entities in untrusted requests
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        XMLStreamReader reader = null;
+        XMLStreamWriter writer = null;
+        long count = 0;
+        try {
+            reader = inputFactory.createXMLStreamReader(request.getInputStream());
+            if (!advanceTo(reader, "CheckInventoryRequest")) {
+                writeFault(response, "Expected a CheckInventoryRequest body");
+                return;
+            }
+
+            List<String> chunk = new ArrayList<>(chunkSize);
+            boolean more = readChunk(reader, chunk);
+            if (chunk.isEmpty()) {
+                writeFault(response, "CheckInventoryRequest must contain at least one productIds element");
+                return;
+            }
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("text/xml;charset=UTF-8");
+            OutputStream out = response.getOutputStream();
+            writer = outputFactory.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement("SOAP-ENV", "Envelope", SOAP_NS);
+            writer.writeNamespace("SOAP-ENV", SOAP_NS);
+            writer.writeStartElement("SOAP-ENV", "Body", SOAP_NS);
+            writer.writeStartElement("ns2", "CheckInventoryResponse", NS);
+            writer.writeNamespace("ns2", NS);
+
+            while (true) {
+                XMLStreamWriter target = writer;
+                inventoryService.checkInventory(chunk, (productId, item) -> writeItem(target, productId, item));
+                count += chunk.size();
+                writer.flush();
+                out.flush();
+                if (!more) {
+                    break;
+                }
+                chunk.clear();
+                more = readChunk(reader, chunk);
+            }
+
+            writeText(writer, "checkedAt", XmlTime.printDateTime(LocalDateTime.now()));
+            writer.writeEndDocument();
+            writer.flush();
+            log.info("Streamed CheckInventoryResponse with {} items", count);
+        } catch (XMLStreamException | StreamWriteException e) {
+            if (response.isCommitted()) {
+                log.error("Aborting streamed CheckInventoryResponse after {} items", count, e);
+                throw new IOException(e);
+            }
+            writeFault(response, "Malformed CheckInventoryRequest: " + e.getMessage());
+        } finally {
+            close(reader, writer);
+        }
+    }
+
+    /**
+     * Move the reader to the start of the given element in the inventory namespace.
+     */
+    private static boolean advanceTo(XMLStreamReader reader, String localName) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT
+                    && NS.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read up to chunkSize product IDs.
+     *
+     * @return false once the end of the CheckInventoryRequest element is reached
+     */
+    private boolean readChunk(XMLStreamReader reader, List<String> chunk) throws XMLStreamException {
+        while (chunk.size() < chunkSize) {
+            int event = reader.nextTag();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+            if (!NS.equals(reader.getNamespaceURI()) || !"productIds".equals(reader.getLocalName())) {
+                throw new XMLStreamException("Unexpected element " + reader.getName(), reader.getLocation());
+            }
+            chunk.add(reader.getElementText().trim());
+        }
+        return true;
+    }
+
+    private static void writeItem(XMLStreamWriter writer, String productId, InventoryService.InventoryItem item) {
+        try {
+            writer.writeStartElement("ns2", "items", NS);
+            // The shared not-found sentinel carries no ID; echo the requested one
+            writeText(writer, "productId", item == InventoryService.NOT_FOUND ? productId : item.productId());
+            writeText(writer, "productName", item.productName());
+            writeText(writer, "availableQuantity", Integer.toString(item.availableQuantity()));
+            writeText(writer, "reservedQuantity", Integer.toString(item.reservedQuantity()));
+            writeText(writer, "warehouseLocation", item.warehouseLocation());
+            writeText(writer, "unitPrice", item.unitPrice().toPlainString());
+            writer.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new StreamWriteException(e);
+        }
+    }
+
+    private static void writeText(XMLStreamWriter writer, String localName, String text) throws XMLStreamException {
+        writer.writeStartElement("ns2", localName, NS);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private void writeFault(HttpServletResponse response, String message) throws IOException {
+        log.warn("Rejecting streamed CheckInventoryRequest: {}", message);
+        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        response.setContentType("text/xml;charset=UTF-8");
+        try {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(response.getOutputStream(),
+                    StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement("SOAP-ENV", "Envelope", SOAP_NS);
+            writer.writeNamespace("SOAP-ENV", SOAP_NS);
+            writer.writeStartElement("SOAP-ENV", "Body", SOAP_NS);
+            writer.writeStartElement("SOAP-ENV", "Fault", SOAP_NS);
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "faultcode", XMLConstants.NULL_NS_URI);
+            writer.writeCharacters("SOAP-ENV:Client");
+            writer.writeEndElement();
+            writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, "faultstring", XMLConstants.NULL_NS_URI);
+            writer.writeCharacters(message);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void close(XMLStreamReader reader, XMLStreamWriter writer) {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            log.debug("Error closing XML stream", e);
+        }
+    }
+
+    /**
+     * Carries an XMLStreamException out of the item sink.
+     */
+    private static final class StreamWriteException extends RuntimeException {
+        StreamWriteException(XMLStreamException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -5,16 +5,16 @@ import com.demo.inventory.generated.*;
 import com.demo.inventory.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
 
-import javax.xml.datatype.DatatypeFactory;
-import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.GregorianCalendar;
 import java.util.List;
 
 /**
@@ -27,25 +27,31 @@ public class InventoryEndpoint {
 
     private final InventoryService inventoryService;
 
+    @Value("${inventory.changes.max-batch}")
+    private int maxChangeBatch;
+
     @PayloadRoot(namespace = WebServiceConfig.NAMESPACE_URI, localPart = "CheckInventoryRequest")
     @ResponsePayload
     public CheckInventoryResponse checkInventory(@RequestPayload CheckInventoryRequest request) {
         log.info("Received CheckInventoryRequest for {} products", request.getProductIds().size());
 
-        List<InventoryService.InventoryItem> items = inventoryService.checkInventory(request.getProductIds());
+        List<String> productIds = request.getProductIds();
+        List<InventoryService.InventoryItem> items = inventoryService.checkInventory(productIds);
 
         CheckInventoryResponse response = new CheckInventoryResponse();
-        items.forEach(item -> {
+        for (int i = 0; i < items.size(); i++) {
+            InventoryService.InventoryItem item = items.get(i);
             InventoryItemType itemType = new InventoryItemType();
-            itemType.setProductId(item.productId());
+            // The shared not-found sentinel carries no ID; echo the requested one
+            itemType.setProductId(item == InventoryService.NOT_FOUND ? productIds.get(i) : item.productId());
             itemType.setProductName(item.productName());
             itemType.setAvailableQuantity(item.availableQuantity());
             itemType.setReservedQuantity(item.reservedQuantity());
             itemType.setWarehouseLocation(item.warehouseLocation());
             itemType.setUnitPrice(item.unitPrice());
             response.getItems().add(itemType);
-        });
-        response.setCheckedAt(toXmlGregorianCalendar(LocalDateTime.now()));
+        }
+        response.setCheckedAt(LocalDateTime.now());
 
         log.info("Returning CheckInventoryResponse with {} items", response.getItems().size());
         return response;
@@ -60,14 +66,17 @@ public class InventoryEndpoint {
                 .map(item -> new InventoryService.ReservationRequest(item.getProductId(), item.getRequestedQuantity()))
                 .toList();
 
+        Duration ttl = request.getTtlSeconds() != null ? Duration.ofSeconds(request.getTtlSeconds()) : null;
         InventoryService.ReservationResult result = inventoryService.reserveInventory(
-                request.getOrderId(), reservationRequests);
+                request.getOrderId(), reservationRequests, Boolean.TRUE.equals(request.isAtomic()), ttl);
 
         ReserveInventoryResponse response = new ReserveInventoryResponse();
         response.setReservationId(result.reservationId());
         response.setOrderId(result.orderId());
         response.setAllReserved(result.allReserved());
-        response.setReservedAt(toXmlGregorianCalendar(LocalDateTime.now()));
+        response.setReservedAt(LocalDateTime.now());
+        response.setExpiresAt(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(result.expiresAtMillis()), ZoneId.systemDefault()));
 
         result.results().forEach(r -> {
             ReservationResultType resultType = new ReservationResultType();
@@ -84,13 +93,74 @@ public class InventoryEndpoint {
         return response;
     }
 
-    private XMLGregorianCalendar toXmlGregorianCalendar(LocalDateTime dateTime) {
-        try {
-            GregorianCalendar gc = GregorianCalendar.from(dateTime.atZone(ZoneId.systemDefault()));
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(gc);
-        } catch (Exception e) {
-            log.error("Error converting date", e);
-            return null;
-        }
+    @PayloadRoot(namespace = WebServiceConfig.NAMESPACE_URI, localPart = "CommitReservationRequest")
+    @ResponsePayload
+    public CommitReservationResponse commitReservation(@RequestPayload CommitReservationRequest request) {
+        log.info("Received CommitReservationRequest for {} reservations", request.getReservationIds().size());
+
+        CommitReservationResponse response = new CommitReservationResponse();
+        inventoryService.commitReservations(request.getReservationIds())
+                .forEach(r -> response.getResults().add(toResultType(r)));
+        response.setProcessedAt(LocalDateTime.now());
+        return response;
+    }
+
+    @PayloadRoot(namespace = WebServiceConfig.NAMESPACE_URI, localPart = "ReleaseReservationRequest")
+    @ResponsePayload
+    public ReleaseReservationResponse releaseReservation(@RequestPayload ReleaseReservationRequest request) {
+        log.info("Received ReleaseReservationRequest for {} reservations", request.getReservationIds().size());
+
+        ReleaseReservationResponse response = new ReleaseReservationResponse();
+        inventoryService.releaseReservations(request.getReservationIds())
+                .forEach(r -> response.getResults().add(toResultType(r)));
+        response.setProcessedAt(LocalDateTime.now());
+        return response;
+    }
+
+    @PayloadRoot(namespace = WebServiceConfig.NAMESPACE_URI, localPart = "GetInventoryChangesRequest")
+    @ResponsePayload
+    public GetInventoryChangesResponse getInventoryChanges(@RequestPayload GetInventoryChangesRequest request) {
+        int max = request.getMaxChanges() != null
+                ? Math.max(1, Math.min(request.getMaxChanges(), maxChangeBatch)) : maxChangeBatch;
+        InventoryService.InventoryChanges changes = inventoryService.changesSince(request.getSinceSequence(),
+                request.getSnapshotCursor(), max);
+
+        GetInventoryChangesResponse response = new GetInventoryChangesResponse();
+        response.setSnapshot(changes.snapshot());
+        changes.items().forEach(item -> response.getItems().add(toItemType(item)));
+        changes.changes().forEach(change -> {
+            InventoryChangeType changeType = new InventoryChangeType();
+            changeType.setSequence(change.sequence());
+            changeType.setProductId(change.productId());
+            changeType.setWarehouseLocation(change.warehouseLocation());
+            changeType.setAvailableQuantity(change.availableQuantity());
+            changeType.setReservedQuantity(change.reservedQuantity());
+            response.getChanges().add(changeType);
+        });
+        response.setNextSequence(changes.nextSequence());
+        response.setSnapshotCursor(changes.snapshotCursor());
+
+        log.debug("Returning {} for sinceSequence={}: {} items, {} changes", changes.snapshot() ? "snapshot" : "changes",
+                request.getSinceSequence(), changes.items().size(), changes.changes().size());
+        return response;
+    }
+
+    private InventoryItemType toItemType(InventoryService.InventoryItem item) {
+        InventoryItemType itemType = new InventoryItemType();
+        itemType.setProductId(item.productId());
+        itemType.setProductName(item.productName());
+        itemType.setAvailableQuantity(item.availableQuantity());
+        itemType.setReservedQuantity(item.reservedQuantity());
+        itemType.setWarehouseLocation(item.warehouseLocation());
+        itemType.setUnitPrice(item.unitPrice());
+        return itemType;
+    }
+
+    private ReservationOperationResultType toResultType(InventoryService.ReservationOperationResult result) {
+        ReservationOperationResultType resultType = new ReservationOperationResultType();
+        resultType.setReservationId(result.reservationId());
+        resultType.setStatus(ReservationStatusType.fromValue(result.status()));
+        resultType.setMessage(result.message());
+        return resultType;
     }
 }
@@ -0,0 +1,64 @@
+package com.demo.inventory.service;
+
+/**
+ * Fixed-size bloom filter over 32-bit key hashes.
+ *
+ * Built once together with a StockTable and never modified afterwards, so
+ * lookups need no synchronization. At 10 bits per key with 7 probes the
+ * false positive rate is below 1%, and the bit array is a fraction of the
+ * size of the table's hash slots, so rejecting an unknown key touches far
+ * less memory than probing the table.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+
+    private final long[] bits;
+    private final int mask;
+
+    BloomFilter(int expectedKeys) {
+        int bitCount = Integer.highestOneBit(Math.max(64, expectedKeys * BITS_PER_KEY - 1)) << 1;
+        this.bits = new long[bitCount >>> 6];
+        this.mask = bitCount - 1;
+    }
+
+    void add(int hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @return false if the key is definitely absent
+     */
+    boolean mightContain(int hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spread a 32-bit hash over 64 bits (MurmurHash3 finalizer).
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.inventory.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hot-SKU detection for one warehouse partition.
+ *
+ * The partition's writer thread reports every reservation line it applies.
+ * Requests are counted per SKU over a fixed window; a SKU that receives at
+ * least threshold requests in one window is marked hot, and a hot SKU that
+ * drops below half the threshold cools down again.
+ *
+ * A hot SKU gets a combining queue: single-line reservations for it are
+ * queued instead of being submitted one by one, and a single drain task on
+ * the writer thread applies every queued request in one pass (see
+ * InventoryPartition.reservePartial).
+ *
+ * Per-SKU metrics are registered only for SKUs that have been hot, which
+ * keeps their cardinality bounded:
+ * - inventory.hot-sku.requests: reservations combined
+ * - inventory.hot-sku.sold-out: reservations short-circuited because the SKU was sold out
+ * - inventory.hot-sku.batch: reservations applied per drain pass
+ */
+@Slf4j
+final class HotSkus {
+
+    private final String warehouse;
+    private final MeterRegistry meterRegistry;
+    private final Policy policy;
+
+    // Writer thread only
+    private final Map<String, int[]> requestCounts = new HashMap<>();
+    private long windowStartNanos = System.nanoTime();
+
+    private final Map<String, HotSku> hot = new ConcurrentHashMap<>();
+
+    HotSkus(String warehouse, Policy policy, MeterRegistry meterRegistry) {
+        this.warehouse = warehouse;
+        this.policy = policy;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The hot SKU entry for a product, or null if it is not hot. Any thread.
+     */
+    HotSku get(String productId) {
+        return hot.get(productId);
+    }
+
+    int size() {
+        return hot.size();
+    }
+
+    /**
+     * Count requests for a SKU. Writer thread only.
+     */
+    void observe(String productId, int requests) {
+        if (policy.threshold() <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= policy.window().toNanos()) {
+            rollWindow();
+            windowStartNanos = now;
+        }
+        requestCounts.computeIfAbsent(productId, key -> new int[1])[0] += requests;
+    }
+
+    private void rollWindow() {
+        requestCounts.forEach((productId, count) -> {
+            if (count[0] >= policy.threshold() && !hot.containsKey(productId)) {
+                hot.put(productId, new HotSku(productId));
+                log.info("SKU {} in {} is hot: {} requests in {}", productId, warehouse, count[0], policy.window());
+            }
+        });
+        hot.values().removeIf(sku -> {
+            int[] count = requestCounts.get(sku.productId);
+            boolean cooled = (count == null || count[0] < policy.threshold() / 2) && sku.queue.isEmpty();
+            if (cooled) {
+                log.info("SKU {} in {} cooled down", sku.productId, warehouse);
+            }
+            return cooled;
+        });
+        requestCounts.clear();
+    }
+
+    /**
+     * When a SKU becomes hot, and how long the request counting window is.
+     *
+     * @param threshold requests per window that make a SKU hot; 0 disables detection
+     */
+    record Policy(int threshold, Duration window) {}
+
+    /**
+     * A reservation waiting in a hot SKU's combining queue.
+     *
+     * @param atomic whether the full quantity must be reserved or nothing
+     */
+    record Pending(String reservationId, String orderId, long expiresAtMillis, int quantity, boolean atomic,
+                   CompletableFuture<Integer> result) {}
+
+    final class HotSku {
+
+        final String productId;
+        final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        // Set while a drain task is queued or running, so at most one is
+        final AtomicBoolean draining = new AtomicBoolean();
+        final Counter combined;
+        final Counter soldOut;
+        final DistributionSummary batch;
+
+        private HotSku(String productId) {
+            this.productId = productId;
+            this.combined = Counter.builder("inventory.hot-sku.requests")
+                    .description("Reservations for a hot SKU applied through its combining queue")
+                    .tags("warehouse", warehouse, "sku", productId)
+                    .register(meterRegistry);
+            this.soldOut = Counter.builder("inventory.hot-sku.sold-out")
+                    .description("Reservations for a hot SKU short-circuited because it was sold out")
+                    .tags("warehouse", warehouse, "sku", productId)
+                    .register(meterRegistry);
+            this.batch = DistributionSummary.builder("inventory.hot-sku.batch")
+                    .description("Reservations applied per pass over a hot SKU's combining queue")
+                    .tags("warehouse", warehouse, "sku", productId)
+                    .register(meterRegistry);
+        }
+    }
+}
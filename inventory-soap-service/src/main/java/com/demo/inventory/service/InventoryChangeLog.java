@@ -0,0 +1,97 @@
+package com.demo.inventory.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, sequence-numbered log of per-SKU stock changes.
+ *
+ * Partition writers append one Change per SKU write, carrying the SKU's
+ * quantities after the write rather than a delta, so applying a change
+ * twice or on top of a newer snapshot is harmless. Changes live in a ring
+ * of fixed capacity; older ones are overwritten.
+ *
+ * A cursor can be resumed only if every change after it is still in the
+ * ring and none predates the floor: the floor moves up on a catalog swap
+ * (every SKU may have changed) and starts at a wall-clock based sequence,
+ * so cursors handed out before a restart are never mistaken for current
+ * ones. Clients with a cursor that cannot be resumed take a full snapshot.
+ *
+ * Appends are lock-free: writers of different partitions claim sequences
+ * from one counter and fill their slots independently. A reader stops at
+ * the first slot that is not filled yet and picks it up on its next call.
+ */
+public class InventoryChangeLog {
+
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final AtomicLong head;
+    private volatile long floor;
+
+    public InventoryChangeLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        long start = System.currentTimeMillis() * 1000;
+        this.head = new AtomicLong(start);
+        this.floor = start;
+    }
+
+    /**
+     * Append the current quantities of one SKU. Partition writer threads only.
+     */
+    void append(String productId, String warehouse, int availableQuantity, int reservedQuantity) {
+        long sequence = head.incrementAndGet();
+        ring.set((int) (sequence & mask), new Change(sequence, productId, warehouse, availableQuantity, reservedQuantity));
+    }
+
+    /**
+     * Invalidate every cursor handed out so far, e.g. after a catalog swap.
+     */
+    void reset() {
+        floor = head.get();
+    }
+
+    /**
+     * Sequence of the latest change appended. A snapshot taken after reading
+     * this is at least as new as every change up to it.
+     */
+    public long latestSequence() {
+        return head.get();
+    }
+
+    /**
+     * Read changes after a cursor.
+     *
+     * @return up to max changes in sequence order, or null if the cursor can
+     *         no longer be resumed and the client must take a snapshot
+     */
+    public List<Change> since(long sequence, int max) {
+        long latest = head.get();
+        if (sequence < floor || sequence > latest || latest - sequence > ring.length()) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>((int) Math.min(max, latest - sequence));
+        for (long next = sequence + 1; next <= latest && changes.size() < max; next++) {
+            Change change = ring.get((int) (next & mask));
+            if (change == null || change.sequence() < next) {
+                // Claimed but not filled yet
+                break;
+            }
+            if (change.sequence() > next) {
+                // Overwritten while reading
+                return null;
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Quantities of one SKU after a write.
+     */
+    public record Change(long sequence, String productId, String warehouseLocation,
+                         int availableQuantity, int reservedQuantity) {}
+}
@@ -0,0 +1,790 @@
+package com.demo.inventory.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The stock of one warehouse.
+ *
+ * Each partition owns its own StockTable and its own reservation log
+ * (reservation ID to the lines reserved in this warehouse), and every write
+ * runs on the partition's single writer thread. Writes to different
+ * warehouses therefore never contend, and within a warehouse they are
+ * applied in submission order without locks.
+ *
+ * Reads do not go through the writer thread. Each SKU's stock is a single
+ * atomic word, and a batch of SKUs is read under a seqlock: the writer
+ * bumps the partition epoch to odd before a write task and back to even
+ * after it, and a reader accepts a batch only if it saw the same even epoch
+ * before and after reading. A batch therefore never shows a multi-line
+ * reservation half-applied, and readers never block the writer. A reader
+ * that keeps losing the race to writes falls back to reading on the writer
+ * thread between two writes.
+ *
+ * When persistence is enabled, every write is appended to the partition's
+ * journal and its future completes only once the journal has been synced.
+ * The writer syncs when its queue runs empty or after syncBatchSize writes,
+ * so one fsync covers a whole batch of writes under load (group commit).
+ * Every SKU write is also published to the shared InventoryChangeLog.
+ *
+ * Flash sales concentrate on a few SKUs. Requests that can no longer get
+ * anything (every line sold out, or an atomic line short of stock) are
+ * answered from a read of the stock word without reaching the writer.
+ * Single-line reservations for SKUs detected as hot (see HotSkus) are
+ * queued per SKU and applied by one drain task per pass, instead of one
+ * writer task each.
+ *
+ * All write methods return futures completed on the writer thread.
+ */
+@Slf4j
+public class InventoryPartition {
+
+    // Optimistic attempts before a batch read falls back to the writer thread
+    private static final int OPTIMISTIC_READS = 64;
+
+    private final String warehouse;
+    private final ThreadPoolExecutor writer;
+    private final Map<String, ReservedLines> reservationLog;
+    private final PartitionJournal journal;
+    private final int syncBatchSize;
+    private final List<Consumer<IOException>> unsynced = new ArrayList<>();
+    private final HotSkus hotSkus;
+    private final InventoryChangeLog changes;
+    private final Counter soldOutCounter;
+
+    private volatile StockTable table;
+    private volatile long catalogVersion;
+    // Seqlock epoch: odd while a write task runs; only the writer thread writes it
+    private volatile long epoch;
+    private final Counter pinnedReadCounter;
+
+    /**
+     * Create a partition with no history.
+     *
+     * @param directory journal directory, or null to keep the partition in memory only
+     */
+    public InventoryPartition(String warehouse, StockTable table, long catalogVersion, Path directory,
+                              int syncBatchSize, HotSkus.Policy hotSkuPolicy, InventoryChangeLog changes,
+                              MeterRegistry meterRegistry) throws IOException {
+        this(warehouse, table, catalogVersion, new HashMap<>(), freshJournal(directory, table, catalogVersion),
+                syncBatchSize, hotSkuPolicy, changes, meterRegistry);
+    }
+
+    private InventoryPartition(String warehouse, StockTable table, long catalogVersion,
+                               Map<String, ReservedLines> reservationLog, PartitionJournal journal,
+                               int syncBatchSize, HotSkus.Policy hotSkuPolicy, InventoryChangeLog changes,
+                               MeterRegistry meterRegistry) {
+        this.warehouse = warehouse;
+        this.table = table;
+        this.catalogVersion = catalogVersion;
+        this.reservationLog = reservationLog;
+        this.journal = journal;
+        this.syncBatchSize = syncBatchSize;
+        this.hotSkus = new HotSkus(warehouse, hotSkuPolicy, meterRegistry);
+        this.changes = changes;
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "inventory-" + warehouse);
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("inventory.partition.skus", this, partition -> partition.table.size())
+                .description("SKUs held by the warehouse partition")
+                .tag("warehouse", warehouse)
+                .register(meterRegistry);
+        Gauge.builder("inventory.partition.queue", writer, executor -> executor.getQueue().size())
+                .description("Writes waiting for the warehouse partition's writer thread")
+                .tag("warehouse", warehouse)
+                .register(meterRegistry);
+        Gauge.builder("inventory.partition.hot-skus", hotSkus, HotSkus::size)
+                .description("SKUs of the warehouse partition currently in hot-SKU mode")
+                .tag("warehouse", warehouse)
+                .register(meterRegistry);
+        this.pinnedReadCounter = Counter.builder("inventory.partition.reads.pinned")
+                .description("Batch reads that fell back to the writer thread after repeated write races")
+                .tag("warehouse", warehouse)
+                .register(meterRegistry);
+        this.soldOutCounter = Counter.builder("inventory.reservations.sold-out")
+                .description("Reservations answered without reaching the writer because stock was sold out")
+                .tag("warehouse", warehouse)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild a partition from its journal directory.
+     *
+     * Steps:
+     * 1. Load the latest snapshot (table rows, stock, reservation log)
+     * 2. Replay the journal records written after the snapshot
+     *
+     * @return the partition, or null if the directory holds no snapshot
+     */
+    public static InventoryPartition recover(Path directory, int syncBatchSize, HotSkus.Policy hotSkuPolicy,
+                                             InventoryChangeLog changes, MeterRegistry meterRegistry)
+            throws IOException {
+        String warehouse = PartitionJournal.warehouseName(directory);
+        PartitionSnapshot snapshot = PartitionJournal.readSnapshot(directory, warehouse);
+        if (snapshot == null) {
+            log.warn("No snapshot in {}, skipping partition", directory);
+            return null;
+        }
+
+        StockTable table = snapshot.table();
+        Map<String, ReservedLines> reservationLog = new HashMap<>(snapshot.reservations());
+        long[] replayed = new long[1];
+        long lastSequence = PartitionJournal.replay(directory, snapshot.sequence(), record -> {
+            if (record.type() == PartitionJournal.RESERVE) {
+                applyReserve(table, reservationLog, record.reservationId(),
+                        new ReservedLines(record.orderId(), record.expiresAtMillis(), record.productIds(), record.quantities()));
+            } else {
+                applyClose(table, reservationLog, record.reservationId(),
+                        record.type() == PartitionJournal.COMMIT ? Reservation.Status.COMMITTED : Reservation.Status.RELEASED);
+            }
+            replayed[0]++;
+        });
+        log.info("Recovered partition {}: {} SKUs, {} reservations, {} journal records replayed",
+                warehouse, table.size(), reservationLog.size(), replayed[0]);
+
+        return new InventoryPartition(warehouse, table, snapshot.catalogVersion(), reservationLog,
+                new PartitionJournal(directory, lastSequence), syncBatchSize, hotSkuPolicy, changes,
+                meterRegistry);
+    }
+
+    private static PartitionJournal freshJournal(Path directory, StockTable table, long catalogVersion)
+            throws IOException {
+        if (directory == null) {
+            return null;
+        }
+        PartitionJournal.clear(directory);
+        PartitionJournal journal = new PartitionJournal(directory, 0);
+        journal.writeSnapshot(new PartitionSnapshot(0, catalogVersion, System.currentTimeMillis(),
+                table, table.copyStock(), Map.of()));
+        return journal;
+    }
+
+    public String warehouse() {
+        return warehouse;
+    }
+
+    /**
+     * Current table, for lock-free reads.
+     */
+    public StockTable table() {
+        return table;
+    }
+
+    public long catalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Reservations held by this partition. Only meaningful right after
+     * recovery, before any write has been submitted.
+     */
+    Map<String, ReservedLines> recoveredReservations() {
+        return Map.copyOf(reservationLog);
+    }
+
+    /**
+     * Read several SKUs as of one point between two writes.
+     *
+     * @param positions positions in productIds (and in items) to read from this partition
+     * @param items     receives one item per position; NOT_FOUND if the product is not here
+     */
+    public void read(List<String> productIds, List<Integer> positions, InventoryService.InventoryItem[] items) {
+        for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+            long before = epoch;
+            if ((before & 1) == 0 && readAll(table, productIds, positions, items) && epoch == before) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+
+        pinnedReadCounter.increment();
+        CompletableFuture<Void> pinned = new CompletableFuture<>();
+        writer.execute(() -> {
+            readAll(table, productIds, positions, items);
+            pinned.complete(null);
+            // A write queued just before may have left its sync to this task
+            syncIfDue();
+        });
+        pinned.join();
+    }
+
+    /**
+     * Hand every SKU of the current table to the sink. Each item is read
+     * atomically; slots frozen by a concurrent table swap are skipped.
+     */
+    public void forEachItem(Consumer<InventoryService.InventoryItem> sink) {
+        forEachItem(0, Integer.MAX_VALUE, sink);
+    }
+
+    /**
+     * Hand up to max SKUs of the current table to the sink, starting at a
+     * table index, like forEachItem.
+     *
+     * @return the index to continue from, or -1 once the table is done
+     */
+    public int forEachItem(int from, int max, Consumer<InventoryService.InventoryItem> sink) {
+        StockTable current = table;
+        int handed = 0;
+        for (int index = from; index < current.size(); index++) {
+            if (handed == max) {
+                return index;
+            }
+            InventoryService.InventoryItem item = current.item(index);
+            if (item != null) {
+                sink.accept(item);
+                handed++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return false if a slot was frozen by a table swap in progress
+     */
+    private static boolean readAll(StockTable current, List<String> productIds, List<Integer> positions,
+                                   InventoryService.InventoryItem[] items) {
+        for (int position : positions) {
+            int index = current.indexOf(productIds.get(position));
+            if (index < 0) {
+                items[position] = InventoryService.NOT_FOUND;
+                continue;
+            }
+            InventoryService.InventoryItem item = current.item(index);
+            if (item == null) {
+                return false;
+            }
+            items[position] = item;
+        }
+        return true;
+    }
+
+    /**
+     * Reserve up to the requested quantity of each line.
+     *
+     * @return the quantity reserved per line, or -1 for products not in this partition
+     */
+    public CompletableFuture<int[]> reservePartial(String reservationId, String orderId, long expiresAtMillis,
+                                                   List<InventoryService.ReservationRequest> items) {
+        if (items.size() == 1) {
+            HotSkus.HotSku hot = hotSkus.get(items.get(0).productId());
+            if (hot != null) {
+                return combine(hot, new HotSkus.Pending(reservationId, orderId, expiresAtMillis,
+                        items.get(0).quantity(), false, new CompletableFuture<>()))
+                        .thenApply(reserved -> new int[] {reserved});
+            }
+        }
+        int[] soldOut = soldOut(items);
+        if (soldOut != null) {
+            soldOutCounter.increment();
+            return CompletableFuture.completedFuture(soldOut);
+        }
+
+        return submit(() -> {
+            int[] reserved = new int[items.size()];
+            String[] reservedIds = new String[items.size()];
+            int[] reservedQuantities = new int[items.size()];
+            int lines = 0;
+            for (int i = 0; i < reserved.length; i++) {
+                InventoryService.ReservationRequest item = items.get(i);
+                hotSkus.observe(item.productId(), 1);
+                int index = table.indexOf(item.productId());
+                reserved[i] = index < 0 ? -1 : table.tryReserve(index, item.quantity());
+                if (reserved[i] > 0) {
+                    reservedIds[lines] = item.productId();
+                    reservedQuantities[lines++] = reserved[i];
+                }
+            }
+            if (lines > 0) {
+                record(reservationId, new ReservedLines(orderId, expiresAtMillis,
+                        Arrays.copyOf(reservedIds, lines), Arrays.copyOf(reservedQuantities, lines)));
+            }
+            return reserved;
+        });
+    }
+
+    /**
+     * Reserve every line in full, or nothing at all.
+     *
+     * Lines are merged per SKU first. Because this runs on the writer thread,
+     * no other write can interleave between the check and the reservation.
+     *
+     * @return true if every line was reserved
+     */
+    public CompletableFuture<Boolean> reserveAll(String reservationId, String orderId, long expiresAtMillis,
+                                                 List<InventoryService.ReservationRequest> items) {
+        if (items.size() == 1) {
+            InventoryService.ReservationRequest item = items.get(0);
+            HotSkus.HotSku hot = hotSkus.get(item.productId());
+            if (hot != null) {
+                return combine(hot, new HotSkus.Pending(reservationId, orderId, expiresAtMillis,
+                        item.quantity(), true, new CompletableFuture<>()))
+                        .thenApply(reserved -> reserved == item.quantity());
+            }
+        }
+        if (shortOfStock(items)) {
+            soldOutCounter.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return submit(() -> {
+            items.forEach(item -> hotSkus.observe(item.productId(), 1));
+            StockTable current = table;
+            int[] indexes = new int[items.size()];
+            int[] quantities = new int[items.size()];
+            int skus = mergeLines(current, items, indexes, quantities);
+            if (skus < 0) {
+                return false;
+            }
+            for (int i = 0; i < skus; i++) {
+                if (quantities[i] < 0 || current.free(indexes[i]) < quantities[i]) {
+                    return false;
+                }
+            }
+
+            String[] productIds = new String[skus];
+            for (int i = 0; i < skus; i++) {
+                current.tryReserveAll(indexes[i], quantities[i]);
+                productIds[i] = current.productId(indexes[i]);
+            }
+            record(reservationId, new ReservedLines(orderId, expiresAtMillis, productIds, Arrays.copyOf(quantities, skus)));
+            return true;
+        });
+    }
+
+    /**
+     * Commit or release this partition's lines of a reservation.
+     */
+    public CompletableFuture<Void> close(String reservationId, Reservation.Status target) {
+        return submit(() -> {
+            ReservedLines lines = applyClose(table, reservationLog, reservationId, target);
+            if (lines == null) {
+                return null;
+            }
+            if (journal != null) {
+                journal.appendClose(target == Reservation.Status.COMMITTED
+                        ? PartitionJournal.COMMIT : PartitionJournal.RELEASE, reservationId);
+            }
+            publish(lines.productIds());
+            return null;
+        });
+    }
+
+    /**
+     * Release this partition's lines of expired reservations.
+     * Quantities are summed per SKU first, so each SKU is updated once per batch.
+     *
+     * @return the number of units released
+     */
+    public CompletableFuture<Long> expire(List<String> reservationIds) {
+        return submit(() -> {
+            Map<Integer, Integer> released = new HashMap<>();
+            for (String reservationId : reservationIds) {
+                ReservedLines lines = reservationLog.remove(reservationId);
+                if (lines == null) {
+                    continue;
+                }
+                if (journal != null) {
+                    journal.appendClose(PartitionJournal.EXPIRE, reservationId);
+                }
+                for (int line = 0; line < lines.productIds().length; line++) {
+                    int index = table.indexOf(lines.productIds()[line]);
+                    if (index >= 0) {
+                        released.merge(index, lines.quantities()[line], Integer::sum);
+                    }
+                }
+            }
+
+            long units = 0;
+            for (Map.Entry<Integer, Integer> entry : released.entrySet()) {
+                table.release(entry.getKey(), entry.getValue());
+                publish(table.productId(entry.getKey()), entry.getKey());
+                units += entry.getValue();
+            }
+            return units;
+        });
+    }
+
+    /**
+     * Replace this partition's table.
+     *
+     * Runs on the writer thread, so no write is in flight. Every slot of the
+     * old table is frozen and its reserved quantity carried into the matching
+     * SKU of the new table before the new table is published; readers that
+     * hit a frozen slot wait for the publish. SKUs missing from the new table
+     * drop their reservations.
+     */
+    public CompletableFuture<Void> replaceTable(StockTable next, long nextCatalogVersion) {
+        return submit(() -> {
+            StockTable current = table;
+            int dropped = 0;
+            for (int index = 0; index < current.size(); index++) {
+                int reserved = current.freeze(index);
+                if (reserved == 0) {
+                    continue;
+                }
+                int nextIndex = next.indexOf(current.productId(index));
+                if (nextIndex >= 0) {
+                    next.carryReserved(nextIndex, reserved);
+                } else {
+                    dropped++;
+                }
+            }
+            table = next;
+            changes.reset();
+            catalogVersion = nextCatalogVersion;
+            log.info("Partition {} replaced: {} -> {} SKUs", warehouse, current.size(), next.size());
+            if (dropped > 0) {
+                log.warn("{} SKUs of partition {} with reserved stock are missing from the new catalog",
+                        dropped, warehouse);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Take a snapshot: capture it on the writer thread, then write it on the
+     * given executor. Once written, journal segments it covers are deleted.
+     */
+    public CompletableFuture<Void> snapshot(Executor background) {
+        if (journal == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(() -> {
+            journal.roll();
+            return new PartitionSnapshot(journal.sequence(), catalogVersion, System.currentTimeMillis(),
+                    table, table.copyStock(), new HashMap<>(reservationLog));
+        }).thenAcceptAsync(snapshot -> {
+            try {
+                journal.writeSnapshot(snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, background);
+    }
+
+    /**
+     * Stop the writer thread and close the journal.
+     *
+     * Writes queued before the shutdown are applied, and the ones still
+     * waiting for their group commit are synced before the journal is
+     * closed, so their futures complete. A write queued behind the close
+     * cannot reach the journal any more: its sync fails and so does its
+     * future.
+     */
+    public void shutdown() {
+        if (journal != null) {
+            writer.execute(() -> {
+                // The writes before this task left their sync to it
+                syncJournal();
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.error("Failed to close journal of partition {}", warehouse, e);
+                }
+            });
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Writer of partition {} did not stop within 5s", warehouse);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run a write on the writer thread. When journaling, the future is
+     * completed only after the journal has been synced.
+     */
+    private <T> CompletableFuture<T> submit(WriterTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        writer.execute(() -> {
+            epoch++;
+            try {
+                completeDurably(future, task.run());
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                epoch++;
+            }
+            syncIfDue();
+        });
+        return future;
+    }
+
+    /**
+     * Complete a write's future now, or once the journal has been synced.
+     * Writer thread only.
+     */
+    private <T> void completeDurably(CompletableFuture<T> future, T result) {
+        if (journal == null) {
+            future.complete(result);
+            return;
+        }
+        unsynced.add(error -> {
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * Sync when the writer runs out of queued work or the batch is full.
+     */
+    private void syncIfDue() {
+        if (!unsynced.isEmpty() && (writer.getQueue().isEmpty() || unsynced.size() >= syncBatchSize)) {
+            syncJournal();
+        }
+    }
+
+    /**
+     * Queue a reservation on a hot SKU and make sure a drain task is scheduled.
+     * A sold-out SKU answers at once without queueing.
+     */
+    private CompletableFuture<Integer> combine(HotSkus.HotSku hot, HotSkus.Pending pending) {
+        StockTable current = table;
+        int index = current.indexOf(hot.productId);
+        if (index >= 0 && current.soldOut(index)) {
+            hot.soldOut.increment();
+            soldOutCounter.increment();
+            return CompletableFuture.completedFuture(0);
+        }
+        hot.queue.add(pending);
+        if (hot.draining.compareAndSet(false, true)) {
+            writer.execute(() -> drain(hot));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Apply every reservation queued on a hot SKU in one pass.
+     * Once the SKU sells out, the rest of the pass is answered without
+     * touching the stock word. Each reservation here changes a single stock
+     * word, so the epoch is left alone. Writer thread only.
+     */
+    private void drain(HotSkus.HotSku hot) {
+        int applied = 0;
+        boolean soldOut = false;
+        HotSkus.Pending pending;
+        while ((pending = hot.queue.poll()) != null) {
+            applied++;
+            try {
+                int reserved = 0;
+                if (!soldOut) {
+                    int index = table.indexOf(hot.productId);
+                    if (index < 0) {
+                        // Gone from the catalog since it turned hot: not found, as on the writer path
+                        reserved = -1;
+                    } else {
+                        reserved = pending.atomic()
+                                ? (table.tryReserveAll(index, pending.quantity()) ? pending.quantity() : 0)
+                                : table.tryReserve(index, pending.quantity());
+                        soldOut = table.soldOut(index);
+                    }
+                }
+                if (reserved > 0) {
+                    record(pending.reservationId(), new ReservedLines(pending.orderId(), pending.expiresAtMillis(),
+                            new String[] {hot.productId}, new int[] {reserved}));
+                } else if (soldOut) {
+                    hot.soldOut.increment();
+                }
+                completeDurably(pending.result(), reserved);
+            } catch (IOException | RuntimeException e) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+        hot.combined.increment(applied);
+        hot.batch.record(applied);
+        hotSkus.observe(hot.productId, applied);
+
+        hot.draining.set(false);
+        // A request queued after the last poll but before the flag was cleared
+        // found the flag still set and did not schedule a drain
+        if (!hot.queue.isEmpty() && hot.draining.compareAndSet(false, true)) {
+            writer.execute(() -> drain(hot));
+        }
+        syncIfDue();
+    }
+
+    /**
+     * Answer a partial reservation without the writer if no line can get anything.
+     *
+     * @return the per-line result (0, or -1 for products not in this partition),
+     *         or null if some line may still be reserved
+     */
+    private int[] soldOut(List<InventoryService.ReservationRequest> items) {
+        StockTable current = table;
+        int[] reserved = new int[items.size()];
+        for (int i = 0; i < reserved.length; i++) {
+            int index = current.indexOf(items.get(i).productId());
+            if (index >= 0 && !current.soldOut(index)) {
+                return null;
+            }
+            reserved[i] = index < 0 ? -1 : 0;
+        }
+        return reserved;
+    }
+
+    /**
+     * Whether an atomic reservation must fail because some line asks for more
+     * than is free. Duplicate lines are not merged here; the writer checks
+     * those.
+     */
+    private boolean shortOfStock(List<InventoryService.ReservationRequest> items) {
+        StockTable current = table;
+        for (InventoryService.ReservationRequest item : items) {
+            int index = current.indexOf(item.productId());
+            if (index >= 0 && current.free(index) < item.quantity() && !current.moved(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void syncJournal() {
+        try {
+            journal.sync();
+            unsynced.forEach(waiter -> waiter.accept(null));
+        } catch (IOException e) {
+            log.error("Journal sync failed for partition {}", warehouse, e);
+            unsynced.forEach(waiter -> waiter.accept(e));
+        } finally {
+            unsynced.clear();
+        }
+    }
+
+    /**
+     * Log, journal and publish a reservation just applied. Writer thread only.
+     */
+    private void record(String reservationId, ReservedLines lines) throws IOException {
+        reservationLog.put(reservationId, lines);
+        if (journal != null) {
+            journal.appendReserve(reservationId, lines.orderId(), lines.expiresAtMillis(),
+                    lines.productIds(), lines.quantities());
+        }
+        publish(lines.productIds());
+    }
+
+    private void publish(String[] productIds) {
+        StockTable current = table;
+        for (String productId : productIds) {
+            int index = current.indexOf(productId);
+            if (index >= 0) {
+                publish(productId, index);
+            }
+        }
+    }
+
+    /**
+     * Append a SKU's current quantities to the change log. Writer thread only.
+     */
+    private void publish(String productId, int index) {
+        long state = table.stockWord(index);
+        changes.append(productId, warehouse, StockTable.onHand(state), StockTable.reserved(state));
+    }
+
+    /**
+     * Re-apply a journaled reservation during recovery.
+     */
+    private static void applyReserve(StockTable table, Map<String, ReservedLines> reservationLog,
+                                     String reservationId, ReservedLines lines) {
+        for (int line = 0; line < lines.productIds().length; line++) {
+            int index = table.indexOf(lines.productIds()[line]);
+            if (index >= 0) {
+                table.tryReserve(index, lines.quantities()[line]);
+            }
+        }
+        reservationLog.put(reservationId, lines);
+    }
+
+    /**
+     * Commit or release the lines of one reservation.
+     *
+     * @return the lines released or committed, or null if the reservation
+     *         has none in this partition
+     */
+    private static ReservedLines applyClose(StockTable table, Map<String, ReservedLines> reservationLog,
+                                      String reservationId, Reservation.Status target) {
+        ReservedLines lines = reservationLog.remove(reservationId);
+        if (lines == null) {
+            return null;
+        }
+        for (int line = 0; line < lines.productIds().length; line++) {
+            int index = table.indexOf(lines.productIds()[line]);
+            if (index < 0) {
+                continue;
+            }
+            if (target == Reservation.Status.COMMITTED) {
+                table.commit(index, lines.quantities()[line]);
+            } else {
+                table.release(index, lines.quantities()[line]);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Resolve lines against a table, sorted and merged per SKU.
+     *
+     * @return the number of distinct SKUs written to indexes/quantities,
+     *         or -1 if a product is unknown
+     */
+    private static int mergeLines(StockTable table, List<InventoryService.ReservationRequest> items,
+                                  int[] indexes, int[] quantities) {
+        // (index << 32 | line) sorts lines by SKU so duplicates become adjacent
+        long[] order = new long[items.size()];
+        for (int i = 0; i < order.length; i++) {
+            int index = table.indexOf(items.get(i).productId());
+            if (index < 0) {
+                return -1;
+            }
+            order[i] = ((long) index << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int skus = 0;
+        for (long entry : order) {
+            int index = (int) (entry >>> 32);
+            int quantity = items.get((int) entry).quantity();
+            if (skus > 0 && indexes[skus - 1] == index) {
+                quantities[skus - 1] += quantity;
+            } else {
+                indexes[skus] = index;
+                quantities[skus++] = quantity;
+            }
+        }
+        return skus;
+    }
+
+    @FunctionalInterface
+    private interface WriterTask<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Lines of one reservation held in this partition.
+     */
+    record ReservedLines(String orderId, long expiresAtMillis, String[] productIds, int[] quantities) {}
+}
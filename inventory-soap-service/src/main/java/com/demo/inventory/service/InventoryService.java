@@ -1,87 +1,715 @@
 package com.demo.inventory.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service for inventory management operations.
+ *
+ * Stock is partitioned by warehouse. Each InventoryPartition owns a columnar
+ * StockTable and a reservation log, and applies all writes on its own
+ * single writer thread, so warehouses never contend with each other.
+ * Reads go straight to the partition tables without touching the writers.
+ *
+ * A reservation request is split by partition, the parts are processed in
+ * parallel, and the per-line results are merged back in request order.
+ * Products are routed to their partition by probing each partition's table;
+ * the bloom filter in front of every table keeps misses cheap.
+ *
+ * The catalog can be replaced at runtime (see replaceCatalog); each
+ * partition swaps its table on its writer thread.
+ *
+ * Reservations run in one of two modes:
+ * - partial (default): each line reserves whatever is free
+ * - atomic: either every line is fully reserved or none is
+ *
+ * Every reservation carries a TTL. Expiry is scheduled on a hashed timing
+ * wheel, and expired quantities are returned to the stock counters in bulk.
+ * Reservations can be committed (reserved stock becomes sold) or released
+ * (reserved stock returns to free stock) by ID before they expire.
+ *
+ * With inventory.persistence.enabled, every partition journals its writes
+ * and is snapshotted periodically and after each catalog swap. On startup,
+ * partitions are recovered from their snapshot plus journal, and open
+ * reservations are re-registered with their original deadlines, so
+ * reservations survive a restart.
+ *
+ * Every SKU write is published to a bounded change log, so clients can keep
+ * a replica current with changesSince instead of polling checkInventory.
  */
 @Slf4j
 @Service
 public class InventoryService {
 
-    // Simulated inventory database
-    private final Map<String, InventoryItem> inventory = new HashMap<>();
-    private final Map<String, Map<String, Integer>> reservations = new HashMap<>();
+    /**
+     * Shared result for product IDs that are not in the catalog.
+     */
+    public static final InventoryItem NOT_FOUND = new InventoryItem(null, "Unknown", 0, 0, "N/A", BigDecimal.ZERO);
 
-    public InventoryService() {
-        // Initialize sample inventory
-        inventory.put("PROD-001", new InventoryItem("PROD-001", "Wireless Headphones", 100, 0, "WH-A1", new BigDecimal("49.99")));
-        inventory.put("PROD-002", new InventoryItem("PROD-002", "Phone Case", 250, 0, "WH-B2", new BigDecimal("19.99")));
-        inventory.put("PROD-003", new InventoryItem("PROD-003", "USB Cable", 500, 0, "WH-C3", new BigDecimal("9.99")));
-        inventory.put("PROD-004", new InventoryItem("PROD-004", "Laptop Stand", 25, 0, "WH-A1", new BigDecimal("79.99")));
-        inventory.put("PROD-005", new InventoryItem("PROD-005", "Webcam", 5, 0, "WH-B2", new BigDecimal("89.99")));
+    private final MeterRegistry meterRegistry;
+    // Simulated inventory database, one partition per warehouse
+    private volatile InventoryPartition[] partitions;
+    private final Object swapLock = new Object();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final Duration defaultTtl;
+    private final ReservationExpiryWheel expiryWheel;
+    private final Counter expiredCounter;
+    private final Counter releasedUnitsCounter;
+    private final Counter lookupCounter;
+    private final Counter unknownLookupCounter;
+
+    private final Path persistenceDirectory;
+    private final int syncBatchSize;
+    private final HotSkus.Policy hotSkuPolicy;
+    private final InventoryChangeLog changeLog;
+    private final ScheduledExecutorService snapshotter;
+
+    public InventoryService(MeterRegistry meterRegistry,
+                            @Value("${inventory.reservation.ttl}") Duration defaultTtl,
+                            @Value("${inventory.reservation.expiry.tick}") Duration expiryTick,
+                            @Value("${inventory.reservation.expiry.wheel-size}") int expiryWheelSize,
+                            @Value("${inventory.persistence.enabled}") boolean persistenceEnabled,
+                            @Value("${inventory.persistence.directory}") String persistenceDirectory,
+                            @Value("${inventory.persistence.sync-batch-size}") int syncBatchSize,
+                            @Value("${inventory.persistence.snapshot-interval}") Duration snapshotInterval,
+                            @Value("${inventory.hot-sku.threshold}") int hotSkuThreshold,
+                            @Value("${inventory.hot-sku.window}") Duration hotSkuWindow,
+                            @Value("${inventory.changes.capacity}") int changeLogCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.persistenceDirectory = persistenceEnabled ? Path.of(persistenceDirectory) : null;
+        this.syncBatchSize = syncBatchSize;
+        this.hotSkuPolicy = new HotSkus.Policy(hotSkuThreshold, hotSkuWindow);
+        this.changeLog = new InventoryChangeLog(changeLogCapacity);
+        this.defaultTtl = defaultTtl;
+        this.expiryWheel = new ReservationExpiryWheel(expiryTick, expiryWheelSize, this::expireReservations);
+        this.expiredCounter = Counter.builder("inventory.reservations.expired")
+                .description("Reservations released because their TTL elapsed")
+                .register(meterRegistry);
+        this.releasedUnitsCounter = Counter.builder("inventory.reservations.released.units")
+                .description("Reserved units returned to stock by expiry")
+                .register(meterRegistry);
+        this.lookupCounter = Counter.builder("inventory.lookups")
+                .description("Product IDs looked up by checkInventory")
+                .register(meterRegistry);
+        this.unknownLookupCounter = Counter.builder("inventory.lookups.unknown")
+                .description("Product IDs looked up by checkInventory that are not in the catalog")
+                .register(meterRegistry);
+        meterRegistry.gauge("inventory.reservations.pending-expiry", expiryWheel, ReservationExpiryWheel::pending);
+
+        InventoryPartition[] recovered = recover();
+        if (recovered.length > 0) {
+            this.partitions = recovered;
+        } else {
+            // Initialize sample inventory (replaced by CatalogLoader when inventory.catalog.path is set)
+            Map<String, StockTable> sample = StockTable.builder(5)
+                    .add("PROD-001", "Wireless Headphones", "WH-A1", new BigDecimal("49.99"), 100)
+                    .add("PROD-002", "Phone Case", "WH-B2", new BigDecimal("19.99"), 250)
+                    .add("PROD-003", "USB Cable", "WH-C3", new BigDecimal("9.99"), 500)
+                    .add("PROD-004", "Laptop Stand", "WH-A1", new BigDecimal("79.99"), 25)
+                    .add("PROD-005", "Webcam", "WH-B2", new BigDecimal("89.99"), 5)
+                    .buildPartitions();
+            this.partitions = sample.entrySet().stream()
+                    .map(entry -> newPartition(entry.getKey(), entry.getValue(), 0))
+                    .toArray(InventoryPartition[]::new);
+        }
+        meterRegistry.gauge("inventory.catalog.skus", this, service -> Arrays.stream(service.partitions)
+                .mapToInt(partition -> partition.table().size())
+                .sum());
+
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.persistenceDirectory != null) {
+            snapshotter.scheduleWithFixedDelay(this::snapshotAll, snapshotInterval.toMillis(),
+                    snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
     }
 
+    /**
+     * Recover partitions from the persistence directory, one subdirectory per
+     * warehouse, and re-register the reservations they hold.
+     *
+     * A reservation spanning several warehouses is rebuilt from the lines
+     * recorded by each of them. Expiry is rescheduled for the original
+     * deadline; reservations that expired while the service was down are
+     * released on the first wheel tick.
+     *
+     * @return the recovered partitions, empty if there is nothing to recover
+     */
+    private InventoryPartition[] recover() {
+        if (persistenceDirectory == null || !Files.isDirectory(persistenceDirectory)) {
+            return new InventoryPartition[0];
+        }
+        List<InventoryPartition> recovered = new ArrayList<>();
+        try (Stream<Path> directories = Files.list(persistenceDirectory)) {
+            for (Path directory : directories.filter(Files::isDirectory).sorted().toList()) {
+                InventoryPartition partition = InventoryPartition.recover(directory, syncBatchSize, hotSkuPolicy, changeLog,
+                        meterRegistry);
+                if (partition != null) {
+                    recovered.add(partition);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover inventory from " + persistenceDirectory, e);
+        }
+
+        Map<String, List<InventoryPartition>> holders = new HashMap<>();
+        Map<String, InventoryPartition.ReservedLines> firstLines = new HashMap<>();
+        for (InventoryPartition partition : recovered) {
+            partition.recoveredReservations().forEach((reservationId, lines) -> {
+                holders.computeIfAbsent(reservationId, key -> new ArrayList<>()).add(partition);
+                firstLines.putIfAbsent(reservationId, lines);
+            });
+        }
+        holders.forEach((reservationId, holding) -> {
+            InventoryPartition.ReservedLines lines = firstLines.get(reservationId);
+            track(new Reservation(reservationId, lines.orderId(), holding, lines.expiresAtMillis()));
+        });
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} warehouses and {} open reservations from {}",
+                    recovered.size(), holders.size(), persistenceDirectory);
+        }
+        return recovered.toArray(InventoryPartition[]::new);
+    }
+
+    private InventoryPartition newPartition(String warehouse, StockTable table, long catalogVersion) {
+        Path directory = persistenceDirectory == null ? null
+                : persistenceDirectory.resolve(PartitionJournal.directoryName(warehouse));
+        try {
+            return new InventoryPartition(warehouse, table, catalogVersion, directory, syncBatchSize,
+                    hotSkuPolicy, changeLog, meterRegistry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal for warehouse " + warehouse, e);
+        }
+    }
+
+    /**
+     * Snapshot every partition; each one's journal is truncated once its
+     * snapshot is on disk.
+     */
+    private void snapshotAll() {
+        for (InventoryPartition partition : partitions) {
+            snapshot(partition);
+        }
+    }
+
+    /**
+     * Capture a snapshot of one partition and write it on the snapshot thread.
+     * A failed snapshot is logged; the journal keeps the partition recoverable.
+     */
+    private CompletableFuture<Void> snapshot(InventoryPartition partition) {
+        return partition.snapshot(snapshotter).exceptionally(e -> {
+            log.error("Snapshot of partition {} failed", partition.warehouse(), e);
+            return null;
+        });
+    }
+
+    /**
+     * Version of the catalog currently loaded (0 for the sample data);
+     * recovered from the snapshots after a restart.
+     */
+    public long catalogVersion() {
+        return Arrays.stream(partitions).mapToLong(InventoryPartition::catalogVersion).max().orElse(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotter.shutdown();
+        expiryWheel.shutdown();
+        for (InventoryPartition partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    /**
+     * Replace the whole catalog with freshly built per-warehouse tables.
+     *
+     * Existing partitions swap their table on their own writer thread, which
+     * carries reserved quantities over (see InventoryPartition.replaceTable).
+     * Warehouses new to the catalog get a new partition; warehouses missing
+     * from it keep their partition with an empty table. Each swapped
+     * partition is snapshotted afterwards, so recovery does not have to
+     * replay the journal against the old table.
+     *
+     * @param catalogVersion version of the new catalog, kept in snapshots
+     */
+    public void replaceCatalog(Map<String, StockTable> tables, long catalogVersion) {
+        synchronized (swapLock) {
+            Map<String, InventoryPartition> byWarehouse = new LinkedHashMap<>();
+            for (InventoryPartition partition : partitions) {
+                byWarehouse.put(partition.warehouse(), partition);
+            }
+
+            List<CompletableFuture<Void>> swaps = new ArrayList<>();
+            byWarehouse.forEach((warehouse, partition) -> swaps.add(partition
+                    .replaceTable(tables.getOrDefault(warehouse, StockTable.builder(0).build()), catalogVersion)
+                    .thenCompose(ignored -> snapshot(partition))));
+            tables.forEach((warehouse, table) -> byWarehouse.computeIfAbsent(warehouse,
+                    key -> newPartition(key, table, catalogVersion)));
+            CompletableFuture.allOf(swaps.toArray(CompletableFuture[]::new)).join();
+
+            partitions = byWarehouse.values().toArray(InventoryPartition[]::new);
+            log.info("Catalog replaced: {} SKUs across {} warehouses",
+                    tables.values().stream().mapToInt(StockTable::size).sum(), tables.size());
+        }
+    }
+
+    /**
+     * Look up products by ID.
+     *
+     * @return one item per requested ID, in request order; unknown IDs map to
+     *         the shared NOT_FOUND sentinel, which carries no product ID
+     */
     public List<InventoryItem> checkInventory(List<String> productIds) {
         log.info("Checking inventory for products: {}", productIds);
-        return productIds.stream()
-                .map(id -> inventory.getOrDefault(id, createNotFoundItem(id)))
-                .toList();
+        return Arrays.asList(resolve(productIds));
+    }
+
+    /**
+     * Look up one chunk of a streamed product list.
+     *
+     * Unlike checkInventory, builds no result list and logs no IDs: each item
+     * is handed to the sink as soon as it is resolved, together with the
+     * requested ID (NOT_FOUND carries none).
+     */
+    public void checkInventory(List<String> productIds, BiConsumer<String, InventoryItem> sink) {
+        InventoryItem[] items = resolve(productIds);
+        for (int i = 0; i < items.length; i++) {
+            sink.accept(productIds.get(i), items[i]);
+        }
+    }
+
+    /**
+     * Resolve product IDs, grouped by partition. Each partition's group is
+     * read as of one point between writes (see InventoryPartition.read), so
+     * no warehouse shows a reservation half-applied. Reservations spanning
+     * warehouses are applied by independent writers and may be seen in some
+     * warehouses before others.
+     */
+    private InventoryItem[] resolve(List<String> productIds) {
+        InventoryItem[] items = new InventoryItem[productIds.size()];
+        Map<InventoryPartition, List<Integer>> byPartition = new IdentityHashMap<>();
+        long unknown = 0;
+        for (int i = 0; i < items.length; i++) {
+            InventoryPartition partition = partitionOf(productIds.get(i));
+            if (partition == null) {
+                items[i] = NOT_FOUND;
+                unknown++;
+            } else {
+                byPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(i);
+            }
+        }
+        byPartition.forEach((partition, positions) -> partition.read(productIds, positions, items));
+
+        lookupCounter.increment(items.length);
+        if (unknown > 0) {
+            unknownLookupCounter.increment(unknown);
+        }
+        return items;
+    }
+
+    /**
+     * Changes since a client's cursor.
+     *
+     * If the cursor can still be resumed, returns up to max changes and the
+     * cursor to resume from. Otherwise returns a snapshot of every SKU,
+     * paged by max like the changes:
+     * 1. The first page takes the change log cursor before reading, and
+     *    returns it as nextSequence with a snapshotCursor for the next page
+     * 2. The client passes both back until a page comes without a
+     *    snapshotCursor, then resumes from nextSequence as usual
+     *
+     * Pages are read at different times, each after the cursor was taken:
+     * changes after it may already be reflected in the snapshot, which is
+     * harmless because each change carries absolute quantities. If the
+     * cursor stops being resumable while paging (a catalog swap, or a
+     * client that fell too far behind), the snapshot starts over.
+     *
+     * @param snapshotCursor snapshotCursor of the previous response, or null
+     */
+    public InventoryChanges changesSince(long sinceSequence, String snapshotCursor, int max) {
+        if (snapshotCursor == null) {
+            List<InventoryChangeLog.Change> changes = changesAfter(sinceSequence, max);
+            if (changes != null) {
+                long next = changes.isEmpty() ? sinceSequence : changes.get(changes.size() - 1).sequence();
+                return new InventoryChanges(false, List.of(), changes, next, null);
+            }
+        } else {
+            SnapshotPosition position = SnapshotPosition.parse(snapshotCursor);
+            if (position != null && changesAfter(sinceSequence, 0) != null) {
+                return snapshotPage(sinceSequence, position, max);
+            }
+            log.info("Snapshot cursor {} at {} can no longer be resumed, starting over", snapshotCursor, sinceSequence);
+        }
+        return snapshotPage(changeLog.latestSequence(), new SnapshotPosition(0, 0), max);
+    }
+
+    /**
+     * Read up to max SKUs of a snapshot, partition by partition.
+     */
+    private InventoryChanges snapshotPage(long sequence, SnapshotPosition from, int max) {
+        InventoryPartition[] current = partitions;
+        List<InventoryItem> items = new ArrayList<>(Math.min(max, 1024));
+        int partition = from.partition();
+        int index = from.index();
+        while (partition < current.length) {
+            index = current[partition].forEachItem(index, max - items.size(), items::add);
+            if (index >= 0) {
+                break;
+            }
+            partition++;
+            index = 0;
+        }
+        String next = partition < current.length ? new SnapshotPosition(partition, index).toString() : null;
+        return new InventoryChanges(true, items, List.of(), sequence, next);
+    }
+
+    /**
+     * Up to max changes after a cursor, or null if the cursor can no longer
+     * be resumed and a snapshot is needed.
+     */
+    public List<InventoryChangeLog.Change> changesAfter(long sinceSequence, int max) {
+        return changeLog.since(sinceSequence, max);
+    }
+
+    /**
+     * Sequence of the latest inventory change.
+     */
+    public long latestChangeSequence() {
+        return changeLog.latestSequence();
+    }
+
+    /**
+     * Hand every SKU to the sink, partition by partition.
+     *
+     * @return the change log cursor to resume from after the snapshot
+     */
+    public long snapshot(Consumer<InventoryItem> sink) {
+        long sequence = changeLog.latestSequence();
+        for (InventoryPartition partition : partitions) {
+            partition.forEachItem(sink);
+        }
+        return sequence;
+    }
+
+    /**
+     * Find the partition holding a product.
+     *
+     * @return the partition, or null if the product is unknown
+     */
+    private InventoryPartition partitionOf(String productId) {
+        for (InventoryPartition partition : partitions) {
+            if (partition.table().indexOf(productId) >= 0) {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserve stock for an order.
+     *
+     * @param ttl how long the reservation is held, or null for the configured default
+     */
+    public ReservationResult reserveInventory(String orderId, List<ReservationRequest> items,
+                                              boolean atomic, Duration ttl) {
+        log.info("Reserving inventory for order: {} (atomic={})", orderId, atomic);
+
+        long expiresAtMillis = System.currentTimeMillis() + (ttl != null ? ttl : defaultTtl).toMillis();
+        return atomic ? reserveAll(orderId, items, expiresAtMillis) : reservePartial(orderId, items, expiresAtMillis);
     }
 
-    public ReservationResult reserveInventory(String orderId, List<ReservationRequest> items) {
-        log.info("Reserving inventory for order: {}", orderId);
+    private ReservationResult reservePartial(String orderId, List<ReservationRequest> items, long expiresAtMillis) {
+        String reservationId = newReservationId();
+        Map<InventoryPartition, List<Integer>> lines = splitByPartition(items);
+
+        int[] reserved = new int[items.size()];
+        Arrays.fill(reserved, -1);
+        Map<InventoryPartition, CompletableFuture<int[]>> parts = new IdentityHashMap<>();
+        lines.forEach((partition, positions) -> {
+            if (partition != null) {
+                parts.put(partition, partition.reservePartial(reservationId, orderId, expiresAtMillis, positions.stream().map(items::get).toList()));
+            }
+        });
+
+        List<InventoryPartition> holding = new ArrayList<>();
+        joinParts(reservationId, parts).forEach((partition, partReserved) -> {
+            List<Integer> positions = lines.get(partition);
+            boolean any = false;
+            for (int i = 0; i < partReserved.length; i++) {
+                reserved[positions.get(i)] = partReserved[i];
+                any |= partReserved[i] > 0;
+            }
+            if (any) {
+                holding.add(partition);
+            }
+        });
+
+        ItemReservationResult[] results = new ItemReservationResult[items.size()];
+        for (int i = 0; i < results.length; i++) {
+            ReservationRequest item = items.get(i);
+            int toReserve = reserved[i];
+            if (toReserve < 0) {
+                results[i] = new ItemReservationResult(item.productId(), item.quantity(), 0, "OUT_OF_STOCK", "Product not found");
+                continue;
+            }
+
+            String status = toReserve == item.quantity() ? "RESERVED" :
+                           toReserve > 0 ? "LOW_STOCK" : "OUT_OF_STOCK";
+            String message = toReserve == item.quantity() ? "Fully reserved" :
+                            toReserve > 0 ? "Partially reserved" : "No stock available";
+
+            results[i] = new ItemReservationResult(item.productId(), item.quantity(), toReserve, status, message);
+        }
+
+        track(new Reservation(reservationId, orderId, holding, expiresAtMillis));
+
+        boolean allReserved = Arrays.stream(results).allMatch(r -> r.reservedQuantity() == r.requestedQuantity());
+
+        return new ReservationResult(reservationId, orderId, List.of(results), allReserved, expiresAtMillis);
+    }
 
-        String reservationId = "RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        Map<String, Integer> orderReservations = new HashMap<>();
-        boolean allReserved = true;
+    /**
+     * All-or-nothing reservation across partitions.
+     *
+     * Each partition reserves its lines all-or-nothing on its writer thread,
+     * in parallel with the others. If any partition fails, the partitions
+     * that succeeded release their part again. No locks are taken, so
+     * overlapping orders can never deadlock.
+     */
+    private ReservationResult reserveAll(String orderId, List<ReservationRequest> items, long expiresAtMillis) {
+        String reservationId = newReservationId();
+        Map<InventoryPartition, List<Integer>> lines = splitByPartition(items);
+
+        boolean allReserved = !lines.containsKey(null);
+        List<InventoryPartition> acquired = new ArrayList<>();
+        if (allReserved) {
+            Map<InventoryPartition, CompletableFuture<Boolean>> parts = new IdentityHashMap<>();
+            lines.forEach((partition, positions) -> parts.put(partition,
+                    partition.reserveAll(reservationId, orderId, expiresAtMillis, positions.stream().map(items::get).toList())));
+            for (Map.Entry<InventoryPartition, Boolean> part : joinParts(reservationId, parts).entrySet()) {
+                if (part.getValue()) {
+                    acquired.add(part.getKey());
+                } else {
+                    allReserved = false;
+                }
+            }
+        }
+
+        if (!allReserved) {
+            CompletableFuture.allOf(acquired.stream()
+                    .map(partition -> partition.close(reservationId, Reservation.Status.RELEASED))
+                    .toArray(CompletableFuture[]::new)).join();
+            log.info("Atomic reservation failed for order: {}, released {} partitions", orderId, acquired.size());
+            List<ItemReservationResult> results = items.stream()
+                    .map(this::unreservedResult)
+                    .toList();
+            return new ReservationResult(reservationId, orderId, results, false, expiresAtMillis);
+        }
+
+        track(new Reservation(reservationId, orderId, acquired, expiresAtMillis));
 
         List<ItemReservationResult> results = items.stream()
-                .map(item -> {
-                    InventoryItem inv = inventory.get(item.productId());
-                    if (inv == null) {
-                        return new ItemReservationResult(item.productId(), item.quantity(), 0, "OUT_OF_STOCK", "Product not found");
-                    }
-
-                    int available = inv.availableQuantity() - inv.reservedQuantity();
-                    int toReserve = Math.min(available, item.quantity());
-
-                    if (toReserve > 0) {
-                        // Update reservation
-                        InventoryItem updated = new InventoryItem(
-                                inv.productId(), inv.productName(),
-                                inv.availableQuantity(), inv.reservedQuantity() + toReserve,
-                                inv.warehouseLocation(), inv.unitPrice()
-                        );
-                        inventory.put(inv.productId(), updated);
-                        orderReservations.put(item.productId(), toReserve);
-                    }
-
-                    String status = toReserve == item.quantity() ? "RESERVED" :
-                                   toReserve > 0 ? "LOW_STOCK" : "OUT_OF_STOCK";
-                    String message = toReserve == item.quantity() ? "Fully reserved" :
-                                    toReserve > 0 ? "Partially reserved" : "No stock available";
-
-                    return new ItemReservationResult(item.productId(), item.quantity(), toReserve, status, message);
-                })
+                .map(item -> new ItemReservationResult(item.productId(), item.quantity(), item.quantity(),
+                        "RESERVED", "Fully reserved"))
                 .toList();
+        return new ReservationResult(reservationId, orderId, results, true, expiresAtMillis);
+    }
+
+    /**
+     * A new reservation ID. It is the handle for commit and release, and it
+     * is journaled, so it carries the full random UUID: the 8 hex digits used
+     * for order IDs collide within tens of thousands of IDs.
+     */
+    private static String newReservationId() {
+        return "RES-" + UUID.randomUUID().toString().toUpperCase();
+    }
 
-        reservations.put(reservationId, orderReservations);
+    /**
+     * Wait for every partition's part of a reservation.
+     *
+     * If any part failed (e.g. its journal write), the parts that succeeded
+     * are released before the failure is rethrown: the reservation is not
+     * tracked, so stock they kept would never be released.
+     *
+     * @return the result of each part
+     */
+    private <T> Map<InventoryPartition, T> joinParts(String reservationId,
+                                                     Map<InventoryPartition, CompletableFuture<T>> parts) {
+        CompletableFuture.allOf(parts.values().toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
 
-        allReserved = results.stream().allMatch(r -> r.reservedQuantity() == r.requestedQuantity());
+        Map<InventoryPartition, T> results = new IdentityHashMap<>();
+        RuntimeException failure = null;
+        for (Map.Entry<InventoryPartition, CompletableFuture<T>> part : parts.entrySet()) {
+            try {
+                results.put(part.getKey(), part.getValue().join());
+            } catch (CompletionException | CancellationException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure == null) {
+            return results;
+        }
 
-        return new ReservationResult(reservationId, orderId, results, allReserved);
+        log.error("Reservation {} failed in a partition, releasing {} partitions", reservationId, results.size(), failure);
+        try {
+            CompletableFuture.allOf(results.keySet().stream()
+                    .map(partition -> partition.close(reservationId, Reservation.Status.RELEASED))
+                    .toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        throw failure;
     }
 
-    private InventoryItem createNotFoundItem(String productId) {
-        return new InventoryItem(productId, "Unknown", 0, 0, "N/A", BigDecimal.ZERO);
+    /**
+     * Group request lines by partition, keeping their positions in the request.
+     * Lines for unknown products are grouped under a null key.
+     */
+    private Map<InventoryPartition, List<Integer>> splitByPartition(List<ReservationRequest> items) {
+        Map<InventoryPartition, List<Integer>> lines = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            lines.computeIfAbsent(partitionOf(items.get(i).productId()), partition -> new ArrayList<>()).add(i);
+        }
+        return lines;
+    }
+
+    /**
+     * Commit reservations: their reserved quantities become sold stock.
+     */
+    public List<ReservationOperationResult> commitReservations(List<String> reservationIds) {
+        log.info("Committing reservations: {}", reservationIds);
+        return reservationIds.stream()
+                .map(id -> closeReservation(id, Reservation.Status.COMMITTED))
+                .toList();
+    }
+
+    /**
+     * Release reservations: their reserved quantities return to free stock.
+     */
+    public List<ReservationOperationResult> releaseReservations(List<String> reservationIds) {
+        log.info("Releasing reservations: {}", reservationIds);
+        return reservationIds.stream()
+                .map(id -> closeReservation(id, Reservation.Status.RELEASED))
+                .toList();
+    }
+
+    /**
+     * Close one reservation through the reservation index.
+     * Only the partitions holding lines for it are involved; no scan takes place.
+     */
+    private ReservationOperationResult closeReservation(String reservationId, Reservation.Status target) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            return new ReservationOperationResult(reservationId, "NOT_FOUND", "Reservation not found or already closed");
+        }
+        if (!reservation.close(target)) {
+            Reservation.Status status = reservation.status();
+            return new ReservationOperationResult(reservationId, status.name(), "Reservation already " + status.name().toLowerCase());
+        }
+
+        reservations.remove(reservationId);
+        expiryWheel.cancel(reservation);
+        CompletableFuture.allOf(reservation.partitions().stream()
+                .map(partition -> partition.close(reservationId, target))
+                .toArray(CompletableFuture[]::new)).join();
+
+        return new ReservationOperationResult(reservationId, target.name(),
+                target == Reservation.Status.COMMITTED ? "Reserved stock committed" : "Reserved stock released");
+    }
+
+    /**
+     * Register a reservation and schedule its expiry.
+     * Reservations that hold nothing are not tracked.
+     */
+    private void track(Reservation reservation) {
+        if (reservation.partitions().isEmpty()) {
+            return;
+        }
+        reservations.put(reservation.reservationId(), reservation);
+        expiryWheel.schedule(reservation);
+    }
+
+    /**
+     * Release a batch of expired reservations.
+     * The batch is split by partition, and each partition releases its lines
+     * in one pass on its writer thread.
+     */
+    private void expireReservations(List<Reservation> expired) {
+        Map<InventoryPartition, List<String>> byPartition = new IdentityHashMap<>();
+        int expiredCount = 0;
+        for (Reservation reservation : expired) {
+            if (!reservation.close(Reservation.Status.EXPIRED)) {
+                continue;
+            }
+            reservations.remove(reservation.reservationId());
+            expiredCount++;
+            for (InventoryPartition partition : reservation.partitions()) {
+                byPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(reservation.reservationId());
+            }
+        }
+
+        List<CompletableFuture<Long>> releases = new ArrayList<>();
+        byPartition.forEach((partition, reservationIds) -> releases.add(partition.expire(reservationIds)));
+        long units = releases.stream().mapToLong(CompletableFuture::join).sum();
+
+        expiredCounter.increment(expiredCount);
+        releasedUnitsCounter.increment(units);
+        if (expiredCount > 0) {
+            log.info("Expired {} reservations, released {} units across {} warehouses",
+                    expiredCount, units, byPartition.size());
+        }
+    }
+
+    private ItemReservationResult unreservedResult(ReservationRequest item) {
+        InventoryPartition partition = partitionOf(item.productId());
+        if (partition == null) {
+            return new ItemReservationResult(item.productId(), item.quantity(), 0, "OUT_OF_STOCK", "Product not found");
+        }
+        StockTable table = partition.table();
+        int index = table.indexOf(item.productId());
+        int free = index >= 0 ? table.free(index) : 0;
+        String status = free >= item.quantity() ? "IN_STOCK" : free > 0 ? "LOW_STOCK" : "OUT_OF_STOCK";
+        return new ItemReservationResult(item.productId(), item.quantity(), 0, status,
+                "Not reserved: order could not be fully reserved");
     }
 
     // Record classes for internal use
@@ -94,5 +722,43 @@ public class InventoryService {
                                         String status, String message) {}
 
     public record ReservationResult(String reservationId, String orderId,
-                                    List<ItemReservationResult> results, boolean allReserved) {}
+                                    List<ItemReservationResult> results, boolean allReserved,
+                                    long expiresAtMillis) {}
+
+    public record ReservationOperationResult(String reservationId, String status, String message) {}
+
+    /**
+     * @param snapshot       true if items is a snapshot page because the cursor could not be resumed
+     * @param nextSequence   cursor to pass on the next call
+     * @param snapshotCursor position of the next snapshot page, or null if there is none
+     */
+    public record InventoryChanges(boolean snapshot, List<InventoryItem> items,
+                                   List<InventoryChangeLog.Change> changes, long nextSequence,
+                                   String snapshotCursor) {}
+
+    /**
+     * Where the next snapshot page starts: a partition and a table index in
+     * it, written as "partition:index".
+     */
+    private record SnapshotPosition(int partition, int index) {
+
+        /**
+         * @return the position, or null if the cursor is not one
+         */
+        static SnapshotPosition parse(String cursor) {
+            int separator = cursor.indexOf(':');
+            try {
+                SnapshotPosition position = new SnapshotPosition(Integer.parseInt(cursor.substring(0, separator)),
+                        Integer.parseInt(cursor.substring(separator + 1)));
+                return position.partition() >= 0 && position.index() >= 0 ? position : null;
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return partition + ":" + index;
+        }
+    }
 }
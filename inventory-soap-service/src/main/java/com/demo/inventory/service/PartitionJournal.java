@@ -0,0 +1,340 @@
+package com.demo.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log and snapshot files of one warehouse partition.
+ *
+ * Directory layout:
+ * - snapshot.bin: the latest point-in-time snapshot, replaced atomically
+ * - wal-{firstSequence}.log: log segments, one started per snapshot
+ *
+ * Log records are framed as [length][crc32][payload] so a torn write at the
+ * tail is detected on replay and cut off. Records are buffered by append and
+ * reach the disk on sync, which the partition's writer thread calls once per
+ * batch of writes (group commit).
+ *
+ * Only the partition's writer thread appends, syncs and rolls; snapshots are
+ * written from a background thread.
+ */
+@Slf4j
+final class PartitionJournal {
+
+    static final byte RESERVE = 1;
+    static final byte COMMIT = 2;
+    static final byte RELEASE = 3;
+    static final byte EXPIRE = 4;
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final int SNAPSHOT_MAGIC = 0x494E5653;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    private final Path directory;
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private FileChannel segment;
+    private long sequence;
+    private long snapshotSequence = -1;
+
+    PartitionJournal(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.sequence = lastSequence;
+        Files.createDirectories(directory);
+        openSegment();
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Buffer a reservation of lines in this partition.
+     */
+    void appendReserve(String reservationId, String orderId, long expiresAtMillis,
+                       String[] productIds, int[] quantities) throws IOException {
+        begin(RESERVE, reservationId);
+        payloadOut.writeUTF(orderId);
+        payloadOut.writeLong(expiresAtMillis);
+        payloadOut.writeInt(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            payloadOut.writeUTF(productIds[i]);
+            payloadOut.writeInt(quantities[i]);
+        }
+        end();
+    }
+
+    /**
+     * Buffer the closing (COMMIT, RELEASE or EXPIRE) of a reservation.
+     */
+    void appendClose(byte type, String reservationId) throws IOException {
+        begin(type, reservationId);
+        end();
+    }
+
+    /**
+     * Write buffered records and force them to disk.
+     */
+    void sync() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+        segment.force(false);
+    }
+
+    /**
+     * Sync and start a new segment; called when a snapshot is captured, so
+     * the new segment only holds records newer than the snapshot.
+     */
+    void roll() throws IOException {
+        sync();
+        segment.close();
+        openSegment();
+    }
+
+    void close() throws IOException {
+        sync();
+        segment.close();
+    }
+
+    /**
+     * Atomically replace the snapshot, then delete log segments it covers.
+     * A snapshot older than the one already written is skipped.
+     */
+    synchronized void writeSnapshot(PartitionSnapshot snapshot) throws IOException {
+        if (snapshot.sequence() < snapshotSequence) {
+            return;
+        }
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            snapshot.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        snapshotSequence = snapshot.sequence();
+
+        for (Path old : segments()) {
+            if (firstSequence(old) <= snapshot.sequence()) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    /**
+     * Delete the snapshot and log segments of a partition directory, for a
+     * partition that starts with no history.
+     */
+    static void clear(Path directory) throws IOException {
+        for (Path old : segments(directory)) {
+            Files.delete(old);
+        }
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * Read the snapshot of a partition directory.
+     *
+     * @return the snapshot, or null if there is none
+     */
+    static PartitionSnapshot readSnapshot(Path directory, String warehouse) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unrecognized snapshot file: " + file);
+            }
+            return PartitionSnapshot.readFrom(in, warehouse);
+        }
+    }
+
+    /**
+     * Replay every intact log record newer than the given sequence.
+     * A torn or corrupt record ends the replay and is truncated away.
+     *
+     * @return the sequence of the last record replayed
+     */
+    static long replay(Path directory, long afterSequence, Consumer<Record> handler) throws IOException {
+        long last = afterSequence;
+        List<Path> segments = segments(directory);
+        for (int s = 0; s < segments.size(); s++) {
+            Path path = segments.get(s);
+            long valid = 0;
+            boolean torn = false;
+            try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+                 DataInputStream in = new DataInputStream(stream)) {
+                CRC32 crc = new CRC32();
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    int expected = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_LENGTH) {
+                        torn = true;
+                        break;
+                    }
+                    byte[] bytes = new byte[length];
+                    try {
+                        in.readFully(bytes);
+                    } catch (EOFException e) {
+                        torn = true;
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != expected) {
+                        torn = true;
+                        break;
+                    }
+                    Record record = Record.decode(bytes);
+                    if (record.sequence() > last) {
+                        handler.accept(record);
+                        last = record.sequence();
+                    }
+                    valid += 8 + length;
+                }
+            } catch (EOFException e) {
+                torn = true;
+            }
+            // A partial length header at the very end also counts as torn
+            if (torn || valid < Files.size(path)) {
+                log.warn("Truncating torn journal segment {} at byte {}", path, valid);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+                // Nothing after a torn record can be trusted
+                for (Path later : segments.subList(s + 1, segments.size())) {
+                    Files.deleteIfExists(later);
+                }
+                break;
+            }
+        }
+        return last;
+    }
+
+    private void begin(byte type, String reservationId) throws IOException {
+        payload.reset();
+        payloadOut.writeLong(++sequence);
+        payloadOut.writeByte(type);
+        payloadOut.writeUTF(reservationId);
+    }
+
+    private void end() throws IOException {
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (buffer.remaining() < bytes.length + 8) {
+            sync();
+            if (buffer.capacity() < bytes.length + 8) {
+                buffer = ByteBuffer.allocate(bytes.length + 8);
+            }
+        }
+        buffer.putInt(bytes.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(bytes);
+    }
+
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(directory.resolve("wal-" + (sequence + 1) + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        return segments(directory);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().matches("wal-\\d+\\.log"))
+                    .sorted(Comparator.comparingLong(PartitionJournal::firstSequence))
+                    .toList());
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(4, name.length() - 4));
+    }
+
+    static String directoryName(String warehouse) {
+        return URLEncoder.encode(warehouse, StandardCharsets.UTF_8);
+    }
+
+    static String warehouseName(Path directory) {
+        return URLDecoder.decode(directory.getFileName().toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One decoded log record. productIds/quantities are only set for RESERVE.
+     */
+    record Record(long sequence, byte type, String reservationId, String orderId, long expiresAtMillis,
+                  String[] productIds, int[] quantities) {
+
+        static Record decode(byte[] bytes) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            long sequence = in.readLong();
+            byte type = in.readByte();
+            String reservationId = in.readUTF();
+            if (type != RESERVE) {
+                return new Record(sequence, type, reservationId, null, 0, null, null);
+            }
+            String orderId = in.readUTF();
+            long expiresAtMillis = in.readLong();
+            int lines = in.readInt();
+            String[] productIds = new String[lines];
+            int[] quantities = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                productIds[i] = in.readUTF();
+                quantities[i] = in.readInt();
+            }
+            return new Record(sequence, type, reservationId, orderId, expiresAtMillis, productIds, quantities);
+        }
+    }
+}
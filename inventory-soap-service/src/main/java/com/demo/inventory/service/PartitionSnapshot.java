@@ -0,0 +1,91 @@
+package com.demo.inventory.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Point-in-time state of one warehouse partition.
+ *
+ * Captured on the partition's writer thread, so the stock words and the
+ * reservation log are consistent with each other and with the journal
+ * sequence. The table's shape never changes, so only the stock column is
+ * copied at capture time; rows are serialized later on a background thread.
+ *
+ * @param sequence       last journal record reflected in the snapshot
+ * @param catalogVersion version of the catalog the table was loaded from (0 for sample data)
+ * @param stock          packed stock word per table row
+ * @param reservations   the partition's reservation log
+ */
+record PartitionSnapshot(long sequence, long catalogVersion, long createdAtMillis, StockTable table, long[] stock,
+                         Map<String, InventoryPartition.ReservedLines> reservations) {
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(catalogVersion);
+        out.writeLong(createdAtMillis);
+
+        out.writeInt(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            table.writeText(i, out);
+            out.writeLong(table.unitPriceMinor(i));
+            out.writeInt(StockTable.onHand(stock[i]));
+            out.writeInt(StockTable.reserved(stock[i]));
+        }
+
+        out.writeInt(reservations.size());
+        for (Map.Entry<String, InventoryPartition.ReservedLines> entry : reservations.entrySet()) {
+            InventoryPartition.ReservedLines lines = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeUTF(lines.orderId());
+            out.writeLong(lines.expiresAtMillis());
+            out.writeInt(lines.productIds().length);
+            for (int i = 0; i < lines.productIds().length; i++) {
+                out.writeUTF(lines.productIds()[i]);
+                out.writeInt(lines.quantities()[i]);
+            }
+        }
+    }
+
+    static PartitionSnapshot readFrom(DataInputStream in, String warehouse) throws IOException {
+        long sequence = in.readLong();
+        long catalogVersion = in.readLong();
+        long createdAtMillis = in.readLong();
+
+        int rows = in.readInt();
+        StockTable.Builder builder = StockTable.builder(rows);
+        byte[] id = new byte[64];
+        byte[] name = new byte[256];
+        for (int i = 0; i < rows; i++) {
+            int idLength = in.readUnsignedShort();
+            id = idLength <= id.length ? id : new byte[idLength];
+            in.readFully(id, 0, idLength);
+            int nameLength = in.readUnsignedShort();
+            name = nameLength <= name.length ? name : new byte[nameLength];
+            in.readFully(name, 0, nameLength);
+            builder.add(ByteBuffer.wrap(id), 0, idLength, ByteBuffer.wrap(name), 0, nameLength,
+                    warehouse, in.readLong(), in.readInt(), in.readInt());
+        }
+        StockTable table = builder.build();
+
+        int count = in.readInt();
+        Map<String, InventoryPartition.ReservedLines> reservations = new HashMap<>();
+        for (int r = 0; r < count; r++) {
+            String reservationId = in.readUTF();
+            String orderId = in.readUTF();
+            long expiresAtMillis = in.readLong();
+            int lines = in.readInt();
+            String[] productIds = new String[lines];
+            int[] quantities = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                productIds[i] = in.readUTF();
+                quantities[i] = in.readInt();
+            }
+            reservations.put(reservationId, new InventoryPartition.ReservedLines(orderId, expiresAtMillis, productIds, quantities));
+        }
+        return new PartitionSnapshot(sequence, catalogVersion, createdAtMillis, table, null, reservations);
+    }
+}
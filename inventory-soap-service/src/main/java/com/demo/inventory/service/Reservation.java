@@ -0,0 +1,71 @@
+package com.demo.inventory.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A reservation of stock for one order.
+ *
+ * The reserved lines themselves live in the reservation logs of the
+ * warehouse partitions involved; the reservation only records which
+ * partitions hold lines for it.
+ * The status only ever moves away from ACTIVE once, which decides the race
+ * between commit, release and expiry.
+ * The wheel* fields are owned by the ReservationExpiryWheel thread.
+ */
+public final class Reservation {
+
+    public enum Status { ACTIVE, COMMITTED, RELEASED, EXPIRED }
+
+    private final String reservationId;
+    private final String orderId;
+    private final List<InventoryPartition> partitions;
+    private final long expiresAtMillis;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.ACTIVE);
+
+    // Timing wheel linkage (intrusive doubly linked bucket list)
+    Reservation wheelPrev;
+    Reservation wheelNext;
+    int wheelBucket = -1;
+    long wheelRounds;
+
+    public Reservation(String reservationId, String orderId, List<InventoryPartition> partitions,
+                       long expiresAtMillis) {
+        this.reservationId = reservationId;
+        this.orderId = orderId;
+        this.partitions = List.copyOf(partitions);
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String reservationId() {
+        return reservationId;
+    }
+
+    public String orderId() {
+        return orderId;
+    }
+
+    /**
+     * Partitions holding reserved lines for this reservation.
+     */
+    public List<InventoryPartition> partitions() {
+        return partitions;
+    }
+
+    public long expiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    /**
+     * Close an active reservation.
+     *
+     * @return true if this call moved the reservation out of ACTIVE
+     */
+    public boolean close(Status target) {
+        return status.compareAndSet(Status.ACTIVE, target);
+    }
+}
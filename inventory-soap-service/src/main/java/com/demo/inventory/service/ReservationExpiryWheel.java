@@ -0,0 +1,176 @@
+package com.demo.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel that expires reservations.
+ *
+ * Reservations are kept in an intrusive doubly linked list per bucket, so
+ * scheduling and cancelling are both O(1) regardless of how many reservations
+ * are pending. Deadlines further away than one wheel revolution are handled
+ * with a remaining-rounds counter.
+ *
+ * Callers never touch the buckets directly: schedule and cancel requests go
+ * through lock-free queues and are applied by the single wheel thread at the
+ * start of each tick. Reservations that expire during a tick are handed to
+ * the expiry handler as one batch.
+ */
+@Slf4j
+public class ReservationExpiryWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Reservation[] buckets;
+    private final long startMillis;
+    private long currentTick;
+
+    private final Queue<Reservation> pendingSchedules = new ConcurrentLinkedQueue<>();
+    private final Queue<Reservation> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Consumer<List<Reservation>> expiryHandler;
+    private final ScheduledExecutorService ticker;
+
+    public ReservationExpiryWheel(Duration tickDuration, int wheelSize, Consumer<List<Reservation>> expiryHandler) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickDuration.toMillis();
+        this.mask = wheelSize - 1;
+        this.buckets = new Reservation[wheelSize];
+        this.startMillis = System.currentTimeMillis();
+        this.expiryHandler = expiryHandler;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedule a reservation for expiry at its expiresAtMillis.
+     */
+    public void schedule(Reservation reservation) {
+        pending.incrementAndGet();
+        pendingSchedules.offer(reservation);
+    }
+
+    /**
+     * Cancel the expiry of a reservation that was closed by other means.
+     */
+    public void cancel(Reservation reservation) {
+        pendingCancels.offer(reservation);
+    }
+
+    /**
+     * Number of reservations waiting for expiry.
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            long targetTick = (now - startMillis) / tickMillis;
+
+            transferSchedules();
+            transferCancels();
+
+            List<Reservation> expired = new ArrayList<>();
+            while (currentTick <= targetTick) {
+                expireBucket((int) (currentTick & mask), expired);
+                currentTick++;
+            }
+
+            if (!expired.isEmpty()) {
+                pending.addAndGet(-expired.size());
+                expiryHandler.accept(expired);
+            }
+        } catch (Throwable t) {
+            log.error("Reservation expiry tick failed", t);
+        }
+    }
+
+    private void transferSchedules() {
+        Reservation reservation;
+        while ((reservation = pendingSchedules.poll()) != null) {
+            if (reservation.status() != Reservation.Status.ACTIVE) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long deadlineTick = Math.max(
+                    (reservation.expiresAtMillis() - startMillis + tickMillis - 1) / tickMillis,
+                    currentTick);
+            reservation.wheelRounds = (deadlineTick - currentTick) / buckets.length;
+            link(reservation, (int) (deadlineTick & mask));
+        }
+    }
+
+    private void transferCancels() {
+        Reservation reservation;
+        while ((reservation = pendingCancels.poll()) != null) {
+            if (reservation.wheelBucket >= 0) {
+                unlink(reservation);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void expireBucket(int bucket, List<Reservation> expired) {
+        Reservation node = buckets[bucket];
+        while (node != null) {
+            Reservation next = node.wheelNext;
+            if (node.wheelRounds <= 0) {
+                unlink(node);
+                expired.add(node);
+            } else {
+                node.wheelRounds--;
+            }
+            node = next;
+        }
+    }
+
+    private void link(Reservation reservation, int bucket) {
+        Reservation head = buckets[bucket];
+        reservation.wheelBucket = bucket;
+        reservation.wheelPrev = null;
+        reservation.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = reservation;
+        }
+        buckets[bucket] = reservation;
+    }
+
+    private void unlink(Reservation reservation) {
+        Reservation prev = reservation.wheelPrev;
+        Reservation next = reservation.wheelNext;
+        if (prev != null) {
+            prev.wheelNext = next;
+        } else {
+            buckets[reservation.wheelBucket] = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        reservation.wheelPrev = null;
+        reservation.wheelNext = null;
+        reservation.wheelBucket = -1;
+    }
+}
@@ -0,0 +1,578 @@
+package com.demo.inventory.service;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Columnar, primitive-specialized stock table.
+ *
+ * Each SKU is mapped once to a dense int index through an open-addressing
+ * hash (linear probing over int slots), and every attribute lives in its own
+ * column indexed by that int:
+ * - product IDs and names as UTF-8 bytes in shared arenas with int offsets
+ * - warehouse locations dictionary-encoded as short codes
+ * - unit prices as long minor units (cents)
+ * - stock as one packed long per SKU in an AtomicLongArray
+ *   (on-hand in the high 32 bits, reserved in the low 32 bits)
+ *
+ * Every table carries a bloom filter of its product IDs, so unknown IDs are
+ * usually rejected without probing the hash slots at all.
+ *
+ * Lookups and stock updates do not allocate for ASCII product IDs. Stock
+ * updates are single-slot CAS loops, so reservations stay lock-free and
+ * linearizable per SKU. The table's shape is fixed once built; only the
+ * stock column changes.
+ *
+ * When a new catalog is swapped in, every slot of the old table is frozen
+ * (its stock word replaced by a sentinel) and its reserved quantity carried
+ * over. Operations that land on a frozen slot fail without side effects and
+ * report moved(index), telling the caller to retry on the current table.
+ */
+public final class StockTable {
+
+    private static final int PRICE_SCALE = 2;
+    private static final long FROZEN = Long.MIN_VALUE;
+
+    private final int size;
+    private final byte[] idBytes;
+    private final int[] idOffsets;
+    private final byte[] nameBytes;
+    private final int[] nameOffsets;
+    private final short[] warehouseCodes;
+    private final String[] warehouses;
+    private final long[] unitPricesMinor;
+    private final AtomicLongArray stock;
+
+    private final int[] slots;
+    private final int[] slotHashes;
+    private final int mask;
+    private final BloomFilter bloom;
+
+    private StockTable(Builder builder) {
+        this.size = builder.size;
+        // Exactly sized builder columns are adopted as-is; the builder copies
+        // them before it ever writes to them again
+        this.idOffsets = builder.idOffsets.length == size + 1 ? builder.idOffsets : Arrays.copyOf(builder.idOffsets, size + 1);
+        this.idBytes = trim(builder.idBytes, idOffsets[size]);
+        this.nameOffsets = builder.nameOffsets.length == size + 1 ? builder.nameOffsets : Arrays.copyOf(builder.nameOffsets, size + 1);
+        this.nameBytes = trim(builder.nameBytes, nameOffsets[size]);
+        this.warehouseCodes = builder.warehouseCodes.length == size ? builder.warehouseCodes : Arrays.copyOf(builder.warehouseCodes, size);
+        this.warehouses = builder.warehouses.toArray(String[]::new);
+        this.unitPricesMinor = builder.unitPricesMinor.length == size ? builder.unitPricesMinor : Arrays.copyOf(builder.unitPricesMinor, size);
+        this.stock = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stock.set(i, pack(builder.onHand[i], builder.reserved[i]));
+        }
+
+        // Power-of-two capacity with a load factor of at most 0.75
+        int capacity = Integer.highestOneBit(Math.max(2, size + size / 3)) << 1;
+        this.slots = new int[capacity];
+        this.slotHashes = new int[capacity];
+        this.mask = capacity - 1;
+        this.bloom = new BloomFilter(size);
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize, expectedSize * 8L, expectedSize * 16L);
+    }
+
+    private static byte[] trim(byte[] bytes, int length) {
+        return bytes.length == length ? bytes : Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Build one table per warehouse location from several builders, for
+     * example chunks parsed in parallel, keyed by location.
+     *
+     * Row and byte counts are taken per warehouse first, so every partition
+     * is written once into exactly sized columns and the builders' rows are
+     * copied a single time.
+     */
+    public static Map<String, StockTable> buildPartitions(List<Builder> builders) {
+        Map<String, long[]> sizes = new HashMap<>();
+        for (Builder builder : builders) {
+            long[][] perCode = new long[builder.warehouses.size()][3];
+            for (int i = 0; i < builder.size; i++) {
+                long[] counts = perCode[builder.warehouseCodes[i]];
+                counts[0]++;
+                counts[1] += builder.idOffsets[i + 1] - builder.idOffsets[i];
+                counts[2] += builder.nameOffsets[i + 1] - builder.nameOffsets[i];
+            }
+            for (int code = 0; code < perCode.length; code++) {
+                long[] total = sizes.computeIfAbsent(builder.warehouses.get(code), key -> new long[3]);
+                for (int k = 0; k < 3; k++) {
+                    total[k] += perCode[code][k];
+                }
+            }
+        }
+
+        Map<String, Builder> partitions = new HashMap<>();
+        sizes.forEach((warehouse, counts) -> partitions.put(warehouse,
+                new Builder(Math.toIntExact(counts[0]), counts[1], counts[2])));
+
+        for (Builder builder : builders) {
+            Builder[] targets = builder.warehouses.stream().map(partitions::get).toArray(Builder[]::new);
+            ByteBuffer ids = ByteBuffer.wrap(builder.idBytes);
+            ByteBuffer names = ByteBuffer.wrap(builder.nameBytes);
+            for (int i = 0; i < builder.size; i++) {
+                short code = builder.warehouseCodes[i];
+                targets[code].add(ids, builder.idOffsets[i], builder.idOffsets[i + 1],
+                        names, builder.nameOffsets[i], builder.nameOffsets[i + 1],
+                        builder.warehouses.get(code), builder.unitPricesMinor[i], builder.onHand[i], builder.reserved[i]);
+            }
+        }
+
+        Map<String, StockTable> tables = new HashMap<>();
+        partitions.forEach((warehouse, partition) -> tables.put(warehouse, partition.build()));
+        return tables;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Resolve a product ID to its dense index.
+     *
+     * @return the index, or -1 if the product is unknown
+     */
+    public int indexOf(String productId) {
+        int hash = 0;
+        for (int i = 0; i < productId.length(); i++) {
+            char c = productId.charAt(i);
+            if (c >= 0x80) {
+                return indexOf(productId.getBytes(StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + c;
+        }
+        if (!bloom.mightContain(hash)) {
+            return -1;
+        }
+        hash = spread(hash);
+
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (slotHashes[slot] == hash && idEqualsAscii(entry - 1, productId)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int indexOf(byte[] productId) {
+        int hash = hash(productId, 0, productId.length);
+        if (!bloom.mightContain(hash)) {
+            return -1;
+        }
+        hash = spread(hash);
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int start = idOffsets[entry - 1];
+            if (slotHashes[slot] == hash
+                    && Arrays.equals(idBytes, start, idOffsets[entry], productId, 0, productId.length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public String productId(int index) {
+        return new String(idBytes, idOffsets[index], idOffsets[index + 1] - idOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    public String productName(int index) {
+        return new String(nameBytes, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index],
+                StandardCharsets.UTF_8);
+    }
+
+    public String warehouseLocation(int index) {
+        return warehouses[warehouseCodes[index]];
+    }
+
+    public long unitPriceMinor(int index) {
+        return unitPricesMinor[index];
+    }
+
+    public BigDecimal unitPrice(int index) {
+        return BigDecimal.valueOf(unitPricesMinor[index], PRICE_SCALE);
+    }
+
+    /**
+     * Whether the slot was frozen by a catalog swap.
+     * Once true it stays true; the caller should retry on the current table.
+     */
+    public boolean moved(int index) {
+        return stock.get(index) == FROZEN;
+    }
+
+    /**
+     * Quantity that can still be reserved (0 if the slot has moved).
+     */
+    public int free(int index) {
+        long current = stock.get(index);
+        return current == FROZEN ? 0 : onHand(current) - reserved(current);
+    }
+
+    /**
+     * Raw packed stock word (see onHand/reserved); FROZEN once the slot has moved.
+     */
+    long stockWord(int index) {
+        return stock.get(index);
+    }
+
+    /**
+     * Whether nothing is left to reserve. A read-only check for the
+     * sold-out short-circuit; false if the slot has moved.
+     */
+    public boolean soldOut(int index) {
+        long current = stock.get(index);
+        return current != FROZEN && onHand(current) - reserved(current) <= 0;
+    }
+
+    /**
+     * Read a consistent view of one SKU.
+     *
+     * @return the item, or null if the slot has moved
+     */
+    public InventoryService.InventoryItem item(int index) {
+        long current = stock.get(index);
+        if (current == FROZEN) {
+            return null;
+        }
+        return new InventoryService.InventoryItem(productId(index), productName(index),
+                onHand(current), reserved(current), warehouseLocation(index), unitPrice(index));
+    }
+
+    /**
+     * Reserve up to the requested quantity.
+     *
+     * @return the quantity actually reserved (0 when nothing is free or the slot has moved)
+     */
+    public int tryReserve(int index, int requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+        while (true) {
+            long current = stock.get(index);
+            if (current == FROZEN) {
+                return 0;
+            }
+            int onHand = onHand(current);
+            int reserved = reserved(current);
+            int toReserve = Math.min(onHand - reserved, requested);
+            if (toReserve <= 0) {
+                return 0;
+            }
+            if (stock.compareAndSet(index, current, pack(onHand, reserved + toReserve))) {
+                return toReserve;
+            }
+        }
+    }
+
+    /**
+     * Reserve exactly the requested quantity, or nothing at all.
+     *
+     * @return true if the full quantity was reserved (false when the slot has moved)
+     */
+    public boolean tryReserveAll(int index, int requested) {
+        if (requested <= 0) {
+            return requested == 0;
+        }
+        while (true) {
+            long current = stock.get(index);
+            if (current == FROZEN) {
+                return false;
+            }
+            int onHand = onHand(current);
+            int reserved = reserved(current);
+            if (onHand - reserved < requested) {
+                return false;
+            }
+            if (stock.compareAndSet(index, current, pack(onHand, reserved + requested))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return previously reserved quantity to the free stock.
+     *
+     * @return false if the slot has moved and nothing was released
+     */
+    public boolean release(int index, int quantity) {
+        while (true) {
+            long current = stock.get(index);
+            if (current == FROZEN) {
+                return false;
+            }
+            int reserved = Math.max(0, reserved(current) - quantity);
+            if (stock.compareAndSet(index, current, pack(onHand(current), reserved))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Convert previously reserved quantity into sold stock:
+     * both on-hand and reserved drop by the quantity.
+     *
+     * @return false if the slot has moved and nothing was committed
+     */
+    public boolean commit(int index, int quantity) {
+        while (true) {
+            long current = stock.get(index);
+            if (current == FROZEN) {
+                return false;
+            }
+            int committed = Math.min(quantity, reserved(current));
+            if (stock.compareAndSet(index, current, pack(onHand(current) - committed, reserved(current) - committed))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Copy the stock column. Only consistent when called on the thread that
+     * owns all writes to this table.
+     */
+    long[] copyStock() {
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = stock.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Write a row's ID and name as length-prefixed UTF-8.
+     */
+    void writeText(int index, DataOutput out) throws IOException {
+        writeBytes(idBytes, idOffsets[index], idOffsets[index + 1], out);
+        writeBytes(nameBytes, nameOffsets[index], nameOffsets[index + 1], out);
+    }
+
+    private static void writeBytes(byte[] arena, int start, int end, DataOutput out) throws IOException {
+        if (end - start > 0xFFFF) {
+            throw new IOException("Text longer than 65535 bytes");
+        }
+        out.writeShort(end - start);
+        out.write(arena, start, end - start);
+    }
+
+    /**
+     * Freeze a slot so no further operations succeed on it.
+     *
+     * @return the reserved quantity held at the moment of freezing
+     */
+    int freeze(int index) {
+        long previous = stock.getAndSet(index, FROZEN);
+        return previous == FROZEN ? 0 : reserved(previous);
+    }
+
+    /**
+     * Add reserved quantity carried over from a frozen table.
+     * Only used while this table is not yet visible to other threads.
+     */
+    void carryReserved(int index, int quantity) {
+        long current = stock.get(index);
+        stock.set(index, pack(onHand(current), reserved(current) + quantity));
+    }
+
+    private void insert(int index) {
+        int start = idOffsets[index];
+        int end = idOffsets[index + 1];
+        int hash = hash(idBytes, start, end);
+        bloom.add(hash);
+        hash = spread(hash);
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int other = slots[slot] - 1;
+            if (slotHashes[slot] == hash
+                    && Arrays.equals(idBytes, start, end, idBytes, idOffsets[other], idOffsets[other + 1])) {
+                throw new IllegalArgumentException("Duplicate product ID: " + productId(index));
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+        slotHashes[slot] = hash;
+    }
+
+    private boolean idEqualsAscii(int index, String productId) {
+        int start = idOffsets[index];
+        if (idOffsets[index + 1] - start != productId.length()) {
+            return false;
+        }
+        for (int i = 0; i < productId.length(); i++) {
+            if (idBytes[start + i] != productId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash over UTF-8 bytes; equals String.hashCode for ASCII IDs.
+     */
+    private static int hash(byte[] bytes, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + (bytes[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    static int onHand(long state) {
+        return (int) (state >>> 32);
+    }
+
+    static int reserved(long state) {
+        return (int) state;
+    }
+
+    /**
+     * Accumulates rows column by column and builds an immutable-shape table.
+     */
+    public static final class Builder {
+
+        private byte[] idBytes;
+        private int[] idOffsets;
+        private byte[] nameBytes;
+        private int[] nameOffsets;
+        private short[] warehouseCodes;
+        private long[] unitPricesMinor;
+        private int[] onHand;
+        private int[] reserved;
+        private int size;
+
+        private final List<String> warehouses = new ArrayList<>();
+        private final Map<String, Short> warehouseDictionary = new HashMap<>();
+
+        private Builder(int rows, long idByteCount, long nameByteCount) {
+            if (idByteCount > Integer.MAX_VALUE - 8 || nameByteCount > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Catalog text exceeds 2 GB");
+            }
+            idBytes = new byte[(int) idByteCount];
+            idOffsets = new int[rows + 1];
+            nameBytes = new byte[(int) nameByteCount];
+            nameOffsets = new int[rows + 1];
+            warehouseCodes = new short[rows];
+            unitPricesMinor = new long[rows];
+            onHand = new int[rows];
+            reserved = new int[rows];
+        }
+
+        public Builder add(String productId, String productName, String warehouseLocation,
+                           BigDecimal unitPrice, int onHandQuantity) {
+            byte[] id = productId.getBytes(StandardCharsets.UTF_8);
+            byte[] name = productName.getBytes(StandardCharsets.UTF_8);
+            return add(ByteBuffer.wrap(id), 0, id.length, ByteBuffer.wrap(name), 0, name.length, warehouseLocation,
+                    unitPrice.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                    onHandQuantity, 0);
+        }
+
+        /**
+         * Add a row whose ID and name are UTF-8 byte ranges of existing buffers
+         * (for example a memory-mapped file), copying the bytes straight into
+         * the arenas without decoding them.
+         */
+        public Builder add(ByteBuffer idSource, int idStart, int idEnd,
+                           ByteBuffer nameSource, int nameStart, int nameEnd,
+                           String warehouseLocation, long unitPriceMinor, int onHandQuantity, int reservedQuantity) {
+            if (size == warehouseCodes.length) {
+                grow(size + 1);
+            }
+            int idLength = idEnd - idStart;
+            int nameLength = nameEnd - nameStart;
+            idBytes = ensureBytes(idBytes, idOffsets[size] + (long) idLength);
+            nameBytes = ensureBytes(nameBytes, nameOffsets[size] + (long) nameLength);
+            idSource.get(idStart, idBytes, idOffsets[size], idLength);
+            nameSource.get(nameStart, nameBytes, nameOffsets[size], nameLength);
+            idOffsets[size + 1] = idOffsets[size] + idLength;
+            nameOffsets[size + 1] = nameOffsets[size] + nameLength;
+
+            warehouseCodes[size] = encodeWarehouse(warehouseLocation);
+            unitPricesMinor[size] = unitPriceMinor;
+            onHand[size] = onHandQuantity;
+            reserved[size] = reservedQuantity;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public StockTable build() {
+            return new StockTable(this);
+        }
+
+        /**
+         * Build one table per warehouse location, keyed by location.
+         */
+        public Map<String, StockTable> buildPartitions() {
+            return StockTable.buildPartitions(List.of(this));
+        }
+
+        private short encodeWarehouse(String warehouseLocation) {
+            Short code = warehouseDictionary.get(warehouseLocation);
+            if (code == null) {
+                if (warehouses.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many warehouse locations");
+                }
+                code = (short) warehouses.size();
+                warehouses.add(warehouseLocation);
+                warehouseDictionary.put(warehouseLocation, code);
+            }
+            return code;
+        }
+
+        private static byte[] ensureBytes(byte[] arena, long required) {
+            if (required <= arena.length) {
+                return arena;
+            }
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Catalog text exceeds 2 GB");
+            }
+            return Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, Math.max(64, arena.length * 2L))));
+        }
+
+        private void grow(int required) {
+            int capacity = Math.max(Math.max(required, 16), warehouseCodes.length * 2);
+            idOffsets = Arrays.copyOf(idOffsets, capacity + 1);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+            warehouseCodes = Arrays.copyOf(warehouseCodes, capacity);
+            unitPricesMinor = Arrays.copyOf(unitPricesMinor, capacity);
+            onHand = Arrays.copyOf(onHand, capacity);
+            reserved = Arrays.copyOf(reserved, capacity);
+        }
+    }
+}
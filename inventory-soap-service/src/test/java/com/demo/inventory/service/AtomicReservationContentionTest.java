@@ -0,0 +1,182 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.service.InventoryService.InventoryItem;
+import com.demo.inventory.service.InventoryService.ItemReservationResult;
+import com.demo.inventory.service.InventoryService.ReservationRequest;
+import com.demo.inventory.service.InventoryService.ReservationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contention test for atomic (all-or-nothing) reservations: 64 threads
+ * reserve overlapping SKU sets out of a 1k-SKU catalog spread over four
+ * warehouses, and commit, release or keep what they got.
+ *
+ * Checks that:
+ * - the workload finishes, i.e. overlapping orders never deadlock
+ * - every reservation is all or nothing: either every line is reserved in
+ *   full or none is
+ * - afterwards, each SKU's on-hand and reserved stock match the committed
+ *   and still held reservations exactly
+ *
+ * The throughput is printed; -Dcontention.orders sets the orders per thread.
+ */
+class AtomicReservationContentionTest {
+
+    private static final int SKUS = 1000;
+    private static final int HOT_SKUS = 100;
+    private static final int WAREHOUSES = 4;
+    private static final int ON_HAND = 400;
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = Integer.getInteger("contention.orders", 300);
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(new SimpleMeterRegistry(), Duration.ofMinutes(15),
+                Duration.ofMillis(100), 4096, false, "", 64, Duration.ofMinutes(1), 200, Duration.ofSeconds(1), 65536);
+        StockTable.Builder catalog = StockTable.builder(SKUS);
+        for (int sku = 0; sku < SKUS; sku++) {
+            catalog.add(productId(sku), "Product " + sku, "WH-" + sku % WAREHOUSES, new BigDecimal("9.99"), ON_HAND);
+        }
+        inventoryService.replaceCatalog(catalog.buildPartitions(), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryService.shutdown();
+    }
+
+    @Test
+    void overlappingAtomicReservationsNeverDeadlockOrReservePartially() throws Exception {
+        AtomicIntegerArray held = new AtomicIntegerArray(SKUS);
+        AtomicIntegerArray committed = new AtomicIntegerArray(SKUS);
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            runs.add(workers.submit(() -> {
+                start.await();
+                for (int n = 0; n < ORDERS_PER_THREAD; n++) {
+                    String orderId = "ORD-" + thread + "-" + n;
+                    List<ReservationRequest> items = randomOrder(ThreadLocalRandom.current());
+                    ReservationResult result = inventoryService.reserveInventory(orderId, items, true, null);
+                    checkAllOrNothing(result, items);
+                    if (!result.allReserved()) {
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    reserved.incrementAndGet();
+                    switch (ThreadLocalRandom.current().nextInt(3)) {
+                        case 0 -> inventoryService.releaseReservations(List.of(result.reservationId()));
+                        case 1 -> {
+                            inventoryService.commitReservations(List.of(result.reservationId()));
+                            items.forEach(item -> committed.addAndGet(sku(item.productId()), item.quantity()));
+                        }
+                        default -> items.forEach(item -> held.addAndGet(sku(item.productId()), item.quantity()));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        workers.shutdown();
+        boolean finished = workers.awaitTermination(2, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - started;
+        if (!finished) {
+            workers.shutdownNow();
+        }
+        assertTrue(finished, "Atomic reservations did not finish within 2 minutes: deadlock or livelock");
+        for (Future<?> run : runs) {
+            try {
+                run.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    // An assertion failed in a worker
+                    throw error;
+                }
+                throw e;
+            }
+        }
+
+        long orders = (long) THREADS * ORDERS_PER_THREAD;
+        System.out.printf("Atomic reservations: %d orders on %d threads in %d ms, %.0f orders/s "
+                        + "(%d reserved, %d not reserved)%n", orders, THREADS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), orders * 1e9 / elapsedNanos, reserved.get(), failed.get());
+        assertEquals(orders, reserved.get() + failed.get());
+        assertTrue(failed.get() > 0, "The workload should exhaust the hot SKUs");
+
+        List<String> productIds = IntStream.range(0, SKUS).mapToObj(AtomicReservationContentionTest::productId).toList();
+        List<InventoryItem> items = inventoryService.checkInventory(productIds);
+        for (int sku = 0; sku < SKUS; sku++) {
+            InventoryItem item = items.get(sku);
+            assertEquals(ON_HAND - committed.get(sku), item.availableQuantity(), item.productId() + " on hand");
+            assertEquals(held.get(sku), item.reservedQuantity(), item.productId() + " reserved");
+        }
+    }
+
+    /**
+     * Either every line is reserved in full or none is reserved at all.
+     */
+    private static void checkAllOrNothing(ReservationResult result, List<ReservationRequest> items) {
+        assertEquals(items.size(), result.results().size());
+        for (int i = 0; i < items.size(); i++) {
+            ItemReservationResult line = result.results().get(i);
+            int expected = result.allReserved() ? items.get(i).quantity() : 0;
+            assertEquals(expected, line.reservedQuantity(),
+                    () -> "Partial atomic reservation for " + result.orderId() + ": " + result.results());
+        }
+    }
+
+    /**
+     * 2 to 6 distinct SKUs, half of them from the hot set so that orders
+     * overlap and contend, across warehouses.
+     */
+    private static List<ReservationRequest> randomOrder(ThreadLocalRandom random) {
+        int lines = random.nextInt(2, 7);
+        Set<Integer> skus = new LinkedHashSet<>();
+        while (skus.size() < lines) {
+            skus.add(random.nextBoolean() ? random.nextInt(HOT_SKUS) : random.nextInt(SKUS));
+        }
+        return skus.stream()
+                .map(sku -> new ReservationRequest(productId(sku), random.nextInt(1, 6)))
+                .toList();
+    }
+
+    private static String productId(int sku) {
+        return String.format("SKU-%04d", sku);
+    }
+
+    private static int sku(String productId) {
+        return Integer.parseInt(productId.substring(4));
+    }
+}
@@ -0,0 +1,225 @@
+package com.demo.inventory.service;
+
+import com.demo.inventory.service.InventoryService.InventoryItem;
+import com.demo.inventory.service.InventoryService.ReservationRequest;
+import com.demo.inventory.service.InventoryService.ReservationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery of persisted partitions: a snapshot written by a catalog swap
+ * plus the journal tail written after it.
+ *
+ * Each test writes with one InventoryService, shuts it down and recovers
+ * the directory with a new one, as a restart would.
+ *
+ * largeSnapshotWithJournalTail times the recovery of a multi-million-SKU
+ * catalog; -Drecovery.skus and -Drecovery.tail set its size.
+ */
+class PersistenceRecoveryTest {
+
+    private static final int LARGE_SKUS = Integer.getInteger("recovery.skus", 2_000_000);
+    private static final int LARGE_TAIL = Integer.getInteger("recovery.tail", 20_000);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void recoversSnapshotPlusJournalTail() {
+        InventoryService before = newService();
+        before.replaceCatalog(catalog(100, 2, 50), 7);
+
+        // Spans both warehouses
+        ReservationResult held = reserve(before, true, line(0, 3), line(1, 4));
+        ReservationResult committed = reserve(before, true, line(2, 5));
+        ReservationResult released = reserve(before, true, line(3, 6));
+        ReservationResult partial = reserve(before, false, line(4, 60));
+        assertEquals("COMMITTED", before.commitReservations(List.of(committed.reservationId())).get(0).status());
+        assertEquals("RELEASED", before.releaseReservations(List.of(released.reservationId())).get(0).status());
+        before.shutdown();
+
+        InventoryService after = newService();
+        try {
+            assertEquals(7, after.catalogVersion());
+            assertStock(after, 0, 50, 3);
+            assertStock(after, 1, 50, 4);
+            assertStock(after, 2, 45, 0);
+            assertStock(after, 3, 50, 0);
+            assertStock(after, 4, 50, 50);
+            assertStock(after, 5, 50, 0);
+
+            // Open reservations are tracked again, across both warehouses
+            assertEquals("COMMITTED", after.commitReservations(List.of(held.reservationId())).get(0).status());
+            assertEquals("RELEASED", after.releaseReservations(List.of(partial.reservationId())).get(0).status());
+            assertEquals("NOT_FOUND", after.commitReservations(List.of(committed.reservationId())).get(0).status());
+            assertStock(after, 0, 47, 0);
+            assertStock(after, 1, 46, 0);
+            assertStock(after, 4, 50, 0);
+        } finally {
+            after.shutdown();
+        }
+    }
+
+    @Test
+    void cutsOffATornLastRecord() throws IOException {
+        InventoryService before = newService();
+        before.replaceCatalog(catalog(10, 1, 20), 1);
+        ReservationResult kept = reserve(before, true, line(0, 2));
+        ReservationResult torn = reserve(before, true, line(1, 3));
+        before.shutdown();
+
+        // A crash in the middle of the last write
+        Path segment = lastSegment(directory.resolve(PartitionJournal.directoryName("WH-0")));
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+
+        InventoryService recovered = newService();
+        try {
+            assertStock(recovered, 0, 20, 2);
+            assertStock(recovered, 1, 20, 0);
+            assertTrue(Files.size(segment) < size - 5, "The partial record is truncated away");
+            assertEquals("NOT_FOUND", recovered.releaseReservations(List.of(torn.reservationId())).get(0).status());
+
+            // The journal carries on from the last intact record
+            reserve(recovered, true, line(2, 4));
+        } finally {
+            recovered.shutdown();
+        }
+
+        InventoryService again = newService();
+        try {
+            assertStock(again, 0, 20, 2);
+            assertStock(again, 1, 20, 0);
+            assertStock(again, 2, 20, 4);
+            assertEquals("COMMITTED", again.commitReservations(List.of(kept.reservationId())).get(0).status());
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    @Test
+    void largeSnapshotWithJournalTail() throws Exception {
+        int warehouses = 4;
+        InventoryService before = newService();
+        long started = System.nanoTime();
+        before.replaceCatalog(catalog(LARGE_SKUS, warehouses, 1_000), 1);
+        long snapshotNanos = System.nanoTime() - started;
+
+        // The tail: single-line reservations from several threads, so the
+        // journal syncs them in groups as under load
+        AtomicIntegerArray reserved = new AtomicIntegerArray(LARGE_SKUS);
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        List<Future<?>> writes = new ArrayList<>();
+        started = System.nanoTime();
+        for (int i = 0; i < LARGE_TAIL; i++) {
+            writes.add(clients.submit(() -> {
+                int sku = ThreadLocalRandom.current().nextInt(LARGE_SKUS);
+                int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+                if (reserve(before, true, line(sku, quantity)).allReserved()) {
+                    reserved.addAndGet(sku, quantity);
+                }
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        long tailNanos = System.nanoTime() - started;
+        clients.shutdown();
+        before.shutdown();
+
+        started = System.nanoTime();
+        InventoryService after = newService();
+        long recoveryNanos = System.nanoTime() - started;
+        try {
+            System.out.printf("Recovery of %d SKUs in %d warehouses plus %d journal records: %d ms "
+                            + "(snapshot written in %d ms, tail in %d ms)%n", LARGE_SKUS, warehouses, LARGE_TAIL,
+                    TimeUnit.NANOSECONDS.toMillis(recoveryNanos), TimeUnit.NANOSECONDS.toMillis(snapshotNanos),
+                    TimeUnit.NANOSECONDS.toMillis(tailNanos));
+
+            List<String> productIds = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int sku = 0; sku < LARGE_SKUS; sku++) {
+                if (reserved.get(sku) > 0 || sku % 10_000 == 0) {
+                    productIds.add(productId(sku));
+                    expected.add(reserved.get(sku));
+                }
+            }
+            List<InventoryItem> items = after.checkInventory(productIds);
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals(1_000, items.get(i).availableQuantity(), productIds.get(i));
+                assertEquals(expected.get(i), items.get(i).reservedQuantity(), productIds.get(i));
+            }
+        } finally {
+            after.shutdown();
+        }
+    }
+
+    private InventoryService newService() {
+        // No periodic snapshots: what is recovered is the catalog swap's snapshot plus the journal
+        return new InventoryService(new SimpleMeterRegistry(), Duration.ofMinutes(15), Duration.ofMillis(100), 4096,
+                true, directory.toString(), 256, Duration.ofHours(1), 200, Duration.ofSeconds(1), 65536);
+    }
+
+    /**
+     * SKUs spread round-robin over warehouses WH-0, WH-1, ...
+     */
+    private static Map<String, StockTable> catalog(int skus, int warehouses, int onHand) {
+        StockTable.Builder catalog = StockTable.builder(skus);
+        for (int sku = 0; sku < skus; sku++) {
+            catalog.add(productId(sku), "Product", "WH-" + sku % warehouses, new BigDecimal("9.99"), onHand);
+        }
+        return catalog.buildPartitions();
+    }
+
+    private static ReservationResult reserve(InventoryService service, boolean atomic, ReservationRequest... lines) {
+        return service.reserveInventory("ORD-TEST", List.of(lines), atomic, null);
+    }
+
+    private static ReservationRequest line(int sku, int quantity) {
+        return new ReservationRequest(productId(sku), quantity);
+    }
+
+    private static void assertStock(InventoryService service, int sku, int onHand, int reserved) {
+        InventoryItem item = service.checkInventory(List.of(productId(sku))).get(0);
+        assertEquals(onHand, item.availableQuantity(), productId(sku) + " on hand");
+        assertEquals(reserved, item.reservedQuantity(), productId(sku) + " reserved");
+    }
+
+    private static Path lastSegment(Path partitionDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(partitionDirectory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("wal-"))
+                    .max(Comparator.comparingLong(path -> Long.parseLong(
+                            path.getFileName().toString().replaceAll("\\D", ""))))
+                    .orElseThrow();
+        }
+    }
+
+    private static String productId(int sku) {
+        return String.format("SKU-%07d", sku);
+    }
+}
@@ -1,21 +1,33 @@
 package com.demo.gateway.client;
 
 import com.demo.gateway.generated.inventory.*;
+import com.demo.singleflight.SingleFlight;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * SOAP Client for Inventory Service with resilience patterns.
+ *
+ * Concurrent checkInventory calls for the same product list share one SOAP
+ * call (SingleFlight); each caller still goes through the circuit breaker
+ * and retry. Reservations are never coalesced.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class InventorySoapClient {
 
     private final InventoryPort inventoryPort;
+    private final SingleFlight<List<String>, CheckInventoryResponse> checkInventoryFlights;
+
+    public InventorySoapClient(InventoryPort inventoryPort, MeterRegistry meterRegistry) {
+        this.inventoryPort = inventoryPort;
+        this.checkInventoryFlights = new SingleFlight<>("checkInventory", meterRegistry);
+    }
 
     @CircuitBreaker(name = "inventoryService", fallbackMethod = "checkInventoryFallback")
     @Retry(name = "inventoryService")
@@ -23,7 +35,9 @@ public class InventorySoapClient {
         log.info("Calling Inventory SOAP service - checkInventory for {} products",
                 request.getProductIds().size());
 
-        CheckInventoryResponse response = inventoryPort.checkInventory(request);
+        // Keyed by the product list in order: the response items follow it
+        CheckInventoryResponse response = checkInventoryFlights.executeBlocking(
+                List.copyOf(request.getProductIds()), () -> inventoryPort.checkInventory(request));
 
         log.info("Inventory SOAP service responded with {} items", response.getItems().size());
         return response;
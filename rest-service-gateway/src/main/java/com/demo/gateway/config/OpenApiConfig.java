@@ -5,10 +5,19 @@ import io.swagger.v3.oas.annotations.info.Contact;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import io.swagger.v3.oas.annotations.servers.Server;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * OpenAPI / Swagger configuration for the Gateway REST API.
+ *
+ * By default springdoc builds the spec at runtime (/v3/api-docs). mvn
+ * -Popenapi package also generates it during the build
+ * (static/v3/api-docs.json, with a gzipped copy); the prod profile turns
+ * runtime scanning and Swagger UI off and serves that file instead.
  */
 @Configuration
 @OpenAPIDefinition(
@@ -41,4 +50,20 @@ import org.springframework.context.annotation.Configuration;
         }
 )
 public class OpenApiConfig {
+
+    /**
+     * Without runtime scanning (springdoc.api-docs.enabled=false, the prod
+     * profile), forward /v3/api-docs to the document generated at build
+     * time, so clients keep the same URL.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+    public WebMvcConfigurer staticApiDocs() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addViewControllers(ViewControllerRegistry registry) {
+                registry.addViewController("/v3/api-docs").setViewName("forward:/v3/api-docs.json");
+            }
+        };
+    }
 }
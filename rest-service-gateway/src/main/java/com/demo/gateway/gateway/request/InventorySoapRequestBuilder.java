@@ -30,12 +30,14 @@ public class InventorySoapRequestBuilder {
 
     /**
      * Build SOAP ReserveInventoryRequest from order details.
+     * Requests an atomic reservation so the order is either fully reserved or not at all.
      */
     public ReserveInventoryRequest buildReserveInventoryRequest(String orderId, List<OrderItemDto> items) {
         log.debug("Building SOAP ReserveInventoryRequest for order: {}", orderId);
 
         ReserveInventoryRequest request = new ReserveInventoryRequest();
         request.setOrderId(orderId);
+        request.setAtomic(true);
 
         items.forEach(item -> {
             ReservationItemType reservationItem = new ReservationItemType();
@@ -8,9 +8,6 @@ import com.demo.gateway.generated.order.CreateOrderResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import javax.xml.datatype.XMLGregorianCalendar;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,8 +28,8 @@ public class OrderGatewayResponseBuilder {
                 .status(orderResponse.getStatus().value())
                 .message(orderResponse.getMessage())
                 .totalAmount(orderResponse.getTotalAmount())
-                .estimatedDeliveryDate(toLocalDate(orderResponse.getEstimatedDeliveryDate()))
-                .createdAt(toLocalDateTime(orderResponse.getCreatedAt()))
+                .estimatedDeliveryDate(orderResponse.getEstimatedDeliveryDate())
+                .createdAt(orderResponse.getCreatedAt())
                 .inventoryReserved(false)
                 .inventoryResults(Collections.emptyList())
                 .success(true)
@@ -55,8 +52,8 @@ public class OrderGatewayResponseBuilder {
                 .status(orderResponse.getStatus().value())
                 .message(orderResponse.getMessage())
                 .totalAmount(orderResponse.getTotalAmount())
-                .estimatedDeliveryDate(toLocalDate(orderResponse.getEstimatedDeliveryDate()))
-                .createdAt(toLocalDateTime(orderResponse.getCreatedAt()))
+                .estimatedDeliveryDate(orderResponse.getEstimatedDeliveryDate())
+                .createdAt(orderResponse.getCreatedAt())
                 .reservationId(inventoryResponse.getReservationId())
                 .inventoryReserved(inventoryResponse.isAllReserved())
                 .inventoryResults(inventoryResults)
@@ -101,14 +98,4 @@ public class OrderGatewayResponseBuilder {
                 .message(result.getMessage())
                 .build();
     }
-
-    private LocalDateTime toLocalDateTime(XMLGregorianCalendar calendar) {
-        if (calendar == null) return null;
-        return calendar.toGregorianCalendar().toZonedDateTime().toLocalDateTime();
-    }
-
-    private LocalDate toLocalDate(XMLGregorianCalendar calendar) {
-        if (calendar == null) return null;
-        return LocalDate.of(calendar.getYear(), calendar.getMonth(), calendar.getDay());
-    }
 }
@@ -0,0 +1,17 @@
+package com.demo.rest.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A GetOrder response ready to send: the GetOrderResponseDto JSON bytes,
+ * serialized once when the order was loaded, and their strong ETag.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedOrder {
+
+    private final String orderId;
+    private final byte[] json;
+    private final String etag;
+}
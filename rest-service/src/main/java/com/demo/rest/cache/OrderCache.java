@@ -0,0 +1,199 @@
+package com.demo.rest.cache;
+
+import com.demo.rest.dto.GetOrderResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Read-through cache of GetOrder results.
+ *
+ * Orders are cached as the response to send (CachedOrder): the JSON bytes,
+ * serialized once when the order is loaded, and a strong ETag. A cache hit
+ * is written without Jackson, and GET /api/v1/orders/{orderId} answers
+ * If-None-Match with 304.
+ *
+ * The ETag is the order version (updatedAt, else createdAt) and a CRC32 of
+ * the JSON: the order created and warmed here and the same order read back
+ * from the backend have the same version, but need not be the same bytes.
+ *
+ * - Caffeine, W-TinyLFU eviction: one-off lookups do not displace orders
+ *   that clients keep polling
+ * - Entries expire orders.cache.ttl after they were written
+ * - Bounded by size in bytes of the cached JSON (orders.cache.max-weight),
+ *   not by entry count; orders heavier than orders.cache.max-entry-weight
+ *   are never cached, so a few giant orders cannot evict everything else
+ * - Loads are futures: concurrent misses for the same order share one load,
+ *   and a failed load is not cached
+ *
+ * Invalidation hooks: invalidate(orderId) and invalidateAll(), also exposed
+ * as DELETE /actuator/ordercache[/{orderId}].
+ *
+ * Metrics: cache.gets (hit/miss), cache.puts, cache.evictions,
+ * cache.eviction.weight and cache.size tagged cache=orders, plus
+ * orders.cache.weight for the current estimated size in bytes.
+ */
+@Slf4j
+@Component
+public class OrderCache {
+
+    // Object headers, the key and the ETag, next to the JSON bytes
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final boolean enabled;
+    private final long maxEntryWeight;
+    private final ObjectWriter orderWriter;
+    private final AsyncCache<String, CachedOrder> cache;
+
+    public OrderCache(@Value("${orders.cache.enabled}") boolean enabled,
+                      @Value("${orders.cache.ttl}") Duration ttl,
+                      @Value("${orders.cache.max-weight}") long maxWeight,
+                      @Value("${orders.cache.max-entry-weight}") long maxEntryWeight,
+                      ObjectMapper objectMapper,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntryWeight = maxEntryWeight;
+        this.orderWriter = objectMapper.writerFor(GetOrderResponseDto.class);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxWeight)
+                .weigher((String orderId, CachedOrder order) -> weigh(order))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+        Gauge.builder("orders.cache.weight", cache,
+                        c -> c.synchronous().policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Estimated size of the cached orders in bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get an order, loading it on a miss.
+     *
+     * With the cache disabled, the order is still serialized with its ETag.
+     *
+     * @param orderId The order ID
+     * @param loader  Loads the order from the SOAP service
+     * @return Future of the cached or freshly loaded order
+     */
+    public CompletableFuture<CachedOrder> get(String orderId,
+                                              Supplier<CompletableFuture<GetOrderResponseDto>> loader) {
+        if (!enabled) {
+            return loader.get().thenApply(this::serialize);
+        }
+        CompletableFuture<CachedOrder> cached = cache.get(orderId, (key, executor) -> {
+            CompletableFuture<CachedOrder> load = new CompletableFuture<>();
+            loader.get()
+                    .thenApply(this::serialize)
+                    .whenComplete((order, error) -> {
+                        if (error != null) {
+                            load.completeExceptionally(error);
+                            return;
+                        }
+                        if (weigh(order) > maxEntryWeight) {
+                            // Too big to cache: take this load out while it is still
+                            // pending, so it is never weighed and evicts nothing
+                            cache.asMap().remove(key, load);
+                        }
+                        load.complete(order);
+                    });
+            return load;
+        });
+        if (cached.isDone() && !cached.isCompletedExceptionally() && weigh(cached.join()) > maxEntryWeight) {
+            // Loaded before the cache stored it
+            cache.asMap().remove(orderId, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Whether the order is cached or being loaded.
+     */
+    public boolean contains(String orderId) {
+        return enabled && cache.getIfPresent(orderId) != null;
+    }
+
+    /**
+     * Warm the cache with an order known to be current, e.g. one just created.
+     */
+    public void put(GetOrderResponseDto order) {
+        if (!enabled) {
+            return;
+        }
+        CachedOrder cached = serialize(order);
+        if (weigh(cached) <= maxEntryWeight) {
+            cache.put(cached.getOrderId(), CompletableFuture.completedFuture(cached));
+        }
+    }
+
+    /**
+     * Drop an order, e.g. after it was changed in the backend.
+     */
+    public void invalidate(String orderId) {
+        log.debug("Invalidating cached order: {}", orderId);
+        cache.synchronous().invalidate(orderId);
+    }
+
+    /**
+     * Drop all orders.
+     */
+    public void invalidateAll() {
+        log.info("Invalidating all cached orders");
+        cache.synchronous().invalidateAll();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Serialize an order as GET /api/v1/orders/{orderId} returns it, and
+     * compute its ETag.
+     */
+    private CachedOrder serialize(GetOrderResponseDto order) {
+        byte[] json;
+        try {
+            json = orderWriter.writeValueAsBytes(order);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize order " + order.getOrderId(), e);
+        }
+        return new CachedOrder(order.getOrderId(), json, etag(order, json));
+    }
+
+    /**
+     * Strong ETag: the order version and a CRC32 of its JSON, e.g.
+     * "18c6f2a1e80-3b1f09c2".
+     */
+    private static String etag(GetOrderResponseDto order, byte[] json) {
+        LocalDateTime version = order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        return "\"" + (version != null ? Long.toHexString(version.toInstant(ZoneOffset.UTC).toEpochMilli()) : "0")
+                + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * Retained size of a cached order in bytes: its JSON plus a fixed cost.
+     */
+    static int weigh(CachedOrder order) {
+        return ENTRY_OVERHEAD + order.getJson().length;
+    }
+}
@@ -0,0 +1,40 @@
+package com.demo.rest.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the GetOrder cache.
+ *
+ * GET /actuator/ordercache                returns the number of cached orders
+ * DELETE /actuator/ordercache             invalidates all orders
+ * DELETE /actuator/ordercache/{orderId}   invalidates one order
+ */
+@Component
+@Endpoint(id = "ordercache")
+@RequiredArgsConstructor
+public class OrderCacheEndpoint {
+
+    private final OrderCache orderCache;
+
+    @ReadOperation
+    public Map<String, Object> size() {
+        return Map.of("size", orderCache.size());
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        orderCache.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidate(@Selector String orderId) {
+        orderCache.invalidate(orderId);
+    }
+}
@@ -0,0 +1,211 @@
+package com.demo.rest.client;
+
+import com.demo.rest.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit on the SOAP calls in flight.
+ *
+ * The limit follows the observed round trip time with a gradient
+ * algorithm, after Netflix concurrency-limits' Gradient2. Completed calls
+ * are gathered into sample windows (soap.client.limit.window, at least ten
+ * calls); at the end of each window:
+ * - A long-term average of the window round trip times tracks the
+ *   backend's normal latency
+ * - The window's average round trip time is compared to it: the gradient
+ *   is tolerance * long-term / window, capped to [0.5, 1]
+ * - The new limit is limit * gradient + sqrt(limit), smoothed: the limit
+ *   grows by about sqrt(limit) while latency is normal, and shrinks when
+ *   it rises above tolerance times the long-term average
+ * - It only grows while at least half of it was in use, so a quiet
+ *   service does not drift up to max-limit; it shrinks whenever latency
+ *   rises
+ * - After a slow period, the long-term average decays towards the window
+ *   round trip time, so the limit recovers
+ *
+ * Only successful calls are sampled. A failing backend often fails fast
+ * (connection refused, 5xx, faults), and its short round trip times would
+ * otherwise raise the limit while it is unhealthy.
+ *
+ * Calls over the limit are not queued: they fail at once with
+ * ConcurrencyLimitExceededException, which the REST API answers with 503
+ * and Retry-After. When soap-service slows down, excess requests are shed
+ * instead of piling up in the soapClientExecutor.
+ *
+ * Only actual SOAP calls take a slot: GetOrder calls joining one in flight
+ * (SingleFlight) do not. With soap.client.limit.enabled=false, calls are
+ * passed through.
+ *
+ * Metrics: soap.client.limit (current limit), soap.client.limit.in-flight
+ * and soap.client.limit.rejections.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    // Sample windows in the long-term round trip time average
+    private static final int LONG_WINDOW = 600;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final Duration retryAfter;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long windows;
+    private long windowStart;
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimiter(@Value("${soap.client.limit.enabled}") boolean enabled,
+                                      @Value("${soap.client.limit.initial-limit}") int initialLimit,
+                                      @Value("${soap.client.limit.min-limit}") int minLimit,
+                                      @Value("${soap.client.limit.max-limit}") int maxLimit,
+                                      @Value("${soap.client.limit.tolerance}") double tolerance,
+                                      @Value("${soap.client.limit.smoothing}") double smoothing,
+                                      @Value("${soap.client.limit.window}") Duration window,
+                                      @Value("${soap.client.limit.retry-after}") Duration retryAfter,
+                                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.retryAfter = retryAfter;
+        this.windowNanos = window.toNanos();
+        this.limit = initialLimit;
+
+        Gauge.builder("soap.client.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current limit on SOAP calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("soap.client.limit.in-flight", inFlight, AtomicInteger::get)
+                .description("SOAP calls in flight")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("soap.client.limit.rejections")
+                .description("SOAP calls rejected by the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the SOAP call if the limit allows it.
+     *
+     * @param call Starts the SOAP call
+     * @return Future of the call, or failed with ConcurrencyLimitExceededException
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        int currentLimit = getLimit();
+        if (!tryAcquire(currentLimit)) {
+            rejections.increment();
+            log.warn("SOAP call rejected: {} calls in flight, limit {}", inFlight.get(), currentLimit);
+            return CompletableFuture.failedFuture(new ConcurrencyLimitExceededException(currentLimit, retryAfter));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            int callsInFlight = inFlight.getAndDecrement();
+            if (error == null) {
+                onSample(System.nanoTime() - start, callsInFlight);
+            }
+        });
+    }
+
+    /**
+     * The current limit.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    private boolean tryAcquire(int currentLimit) {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Record the round trip time of a successful call, and adjust the limit
+     * at the end of each sample window.
+     *
+     * @param rttNanos Round trip time of the call
+     * @param callsInFlight Calls in flight when it completed, itself included
+     */
+    private synchronized void onSample(long rttNanos, int callsInFlight) {
+        long now = System.nanoTime();
+        if (windowSamples == 0) {
+            windowStart = now;
+        }
+        windowRttNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, callsInFlight);
+        if (now - windowStart < windowNanos || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        double rtt = (double) windowRttNanos / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        windows++;
+        if (windows == 1) {
+            longRttNanos = rtt;
+        } else {
+            // Exponential average over LONG_WINDOW windows, quicker while it warms up
+            double factor = 2.0 / (Math.min(windows, LONG_WINDOW) + 1);
+            longRttNanos += (rtt - longRttNanos) * factor;
+        }
+        // Recovering from a slow period: let the average come down
+        if (longRttNanos > 2.0 * rtt) {
+            longRttNanos *= 0.95;
+        }
+
+        double currentLimit = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rtt));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+        newLimit = currentLimit * (1 - smoothing) + newLimit * smoothing;
+        if (maxInFlight < currentLimit / 2) {
+            // Not the limit holding calls back: no reason to raise it
+            newLimit = Math.min(newLimit, currentLimit);
+        }
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        if ((int) newLimit != (int) currentLimit) {
+            log.debug("SOAP concurrency limit {} -> {} (rtt {} ms, average {} ms)", (int) currentLimit,
+                    (int) newLimit, (long) rtt / 1_000_000, (long) longRttNanos / 1_000_000);
+        }
+        limit = newLimit;
+    }
+}
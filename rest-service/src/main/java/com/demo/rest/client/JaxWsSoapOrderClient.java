@@ -0,0 +1,141 @@
+package com.demo.rest.client;
+
+import com.demo.rest.generated.CreateOrderRequest;
+import com.demo.rest.generated.CreateOrderResponse;
+import com.demo.rest.generated.GetOrderRequest;
+import com.demo.rest.generated.GetOrderResponse;
+import com.demo.rest.generated.OrdersPort;
+import com.demo.singleflight.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.xml.ws.AsyncHandler;
+import jakarta.xml.ws.WebServiceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * SOAP Client for communicating with the Order SOAP Service over JAX-WS
+ * (soap.client.transport=jaxws).
+ *
+ * This client uses the JAX-WS generated stubs (WSDL-first approach).
+ * The OrdersPort is generated from the WSDL and provides type-safe SOAP operations.
+ *
+ * Calls are asynchronous: the port's async mapping (see src/jaxws) runs the
+ * SOAP round trip on the soapClientExecutor and the returned future
+ * completes from its AsyncHandler, so the calling thread is never blocked.
+ * SOAP faults and transport errors complete the future exceptionally with
+ * the original SOAPFaultException / WebServiceException.
+ *
+ * Concurrent GetOrder calls for the same order share one SOAP call, and
+ * calls over the AdaptiveConcurrencyLimiter's limit fail without being sent.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "soap.client.transport", havingValue = "jaxws")
+public class JaxWsSoapOrderClient implements SoapOrderClient {
+
+    private final OrdersPort ordersPort;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final SingleFlight<String, GetOrderResponse> getOrderFlights;
+
+    public JaxWsSoapOrderClient(OrdersPort ordersPort,
+                                AdaptiveConcurrencyLimiter limiter,
+                                MeterRegistry meterRegistry) {
+        this.ordersPort = ordersPort;
+        this.limiter = limiter;
+        this.getOrderFlights = new SingleFlight<>("getOrder", meterRegistry);
+    }
+
+    /**
+     * Send a CreateOrder request to the SOAP service.
+     *
+     * Uses the JAX-WS generated port which:
+     * 1. Marshals the request object to XML
+     * 2. Wraps it in a SOAP envelope
+     * 3. Sends it to the SOAP service
+     * 4. Receives the SOAP response
+     * 5. Unmarshals the response XML to Java object
+     *
+     * @param request The SOAP CreateOrderRequest
+     * @return Future of the SOAP CreateOrderResponse
+     */
+    @Override
+    public CompletableFuture<CreateOrderResponse> createOrder(CreateOrderRequest request) {
+        log.info("Sending CreateOrder SOAP request for customer: {}",
+                request.getCustomer().getCustomerId());
+
+        CompletableFuture<CreateOrderResponse> future =
+                call(handler -> ordersPort.createOrderAsync(request, handler));
+
+        return future.whenComplete((response, error) -> {
+            if (response != null) {
+                log.info("Received CreateOrder SOAP response with orderId: {}",
+                        response.getOrderId());
+            }
+        });
+    }
+
+    /**
+     * Send a GetOrder request to the SOAP service.
+     *
+     * @param orderId The order ID to retrieve
+     * @return Future of the SOAP GetOrderResponse
+     */
+    @Override
+    public CompletableFuture<GetOrderResponse> getOrder(String orderId) {
+        return getOrderFlights.execute(orderId, () -> sendGetOrder(orderId));
+    }
+
+    private CompletableFuture<GetOrderResponse> sendGetOrder(String orderId) {
+        log.info("Sending GetOrder SOAP request for orderId: {}", orderId);
+
+        GetOrderRequest request = new GetOrderRequest();
+        request.setOrderId(orderId);
+
+        CompletableFuture<GetOrderResponse> future =
+                call(handler -> ordersPort.getOrderAsync(request, handler));
+
+        return future.whenComplete((response, error) -> {
+            if (response != null) {
+                log.info("Received GetOrder SOAP response for orderId: {}", orderId);
+            }
+        });
+    }
+
+    /**
+     * Start an async SOAP call within the concurrency limit.
+     */
+    private <T> CompletableFuture<T> call(Consumer<AsyncHandler<T>> soapCall) {
+        return limiter.execute(() -> {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                soapCall.accept(completing(future));
+            } catch (WebServiceException | RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        });
+    }
+
+    /**
+     * AsyncHandler that completes the future with the SOAP response,
+     * or exceptionally with the fault / transport error behind it.
+     */
+    private static <T> AsyncHandler<T> completing(CompletableFuture<T> future) {
+        return response -> {
+            try {
+                future.complete(response.get());
+            } catch (ExecutionException e) {
+                future.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            }
+        };
+    }
+}
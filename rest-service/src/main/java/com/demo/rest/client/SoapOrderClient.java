@@ -2,67 +2,43 @@ package com.demo.rest.client;
 
 import com.demo.rest.generated.CreateOrderRequest;
 import com.demo.rest.generated.CreateOrderResponse;
-import com.demo.rest.generated.GetOrderRequest;
 import com.demo.rest.generated.GetOrderResponse;
-import com.demo.rest.generated.OrdersPort;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SOAP Client for communicating with the Order SOAP Service.
  *
- * This client uses the JAX-WS generated stubs (WSDL-first approach).
- * The OrdersPort is generated from the WSDL and provides type-safe SOAP operations.
+ * The transport is selected with soap.client.transport:
+ * - jaxws: JAX-WS generated OrdersPort over the JDK HttpURLConnection
+ *   (JaxWsSoapOrderClient)
+ * - httpclient5: Spring-WS WebServiceTemplate over a pooled Apache
+ *   HttpClient 5 (WebServiceTemplateSoapOrderClient)
+ *
+ * Both implementations exchange the same wsimport-generated JAXB types and
+ * complete their futures on the soapClientExecutor. Concurrent GetOrder
+ * calls for the same order are coalesced into one SOAP call (SingleFlight);
+ * CreateOrder is not idempotent and is never coalesced. SOAP calls go
+ * through the AdaptiveConcurrencyLimiter, which fails calls over its limit
+ * with ConcurrencyLimitExceededException. SOAP faults and transport errors
+ * complete the future exceptionally; GlobalExceptionHandler maps the
+ * exceptions of either transport.
  */
-@Slf4j
-@Component
-@RequiredArgsConstructor
-public class SoapOrderClient {
-
-    private final OrdersPort ordersPort;
+public interface SoapOrderClient {
 
     /**
      * Send a CreateOrder request to the SOAP service.
      *
-     * Uses the JAX-WS generated port which:
-     * 1. Marshals the request object to XML
-     * 2. Wraps it in a SOAP envelope
-     * 3. Sends it to the SOAP service
-     * 4. Receives the SOAP response
-     * 5. Unmarshals the response XML to Java object
-     *
      * @param request The SOAP CreateOrderRequest
-     * @return The SOAP CreateOrderResponse
+     * @return Future of the SOAP CreateOrderResponse
      */
-    public CreateOrderResponse createOrder(CreateOrderRequest request) {
-        log.info("Sending CreateOrder SOAP request for customer: {}",
-                request.getCustomer().getCustomerId());
-
-        CreateOrderResponse response = ordersPort.createOrder(request);
-
-        log.info("Received CreateOrder SOAP response with orderId: {}",
-                response.getOrderId());
-
-        return response;
-    }
+    CompletableFuture<CreateOrderResponse> createOrder(CreateOrderRequest request);
 
     /**
      * Send a GetOrder request to the SOAP service.
      *
      * @param orderId The order ID to retrieve
-     * @return The SOAP GetOrderResponse
+     * @return Future of the SOAP GetOrderResponse
      */
-    public GetOrderResponse getOrder(String orderId) {
-        log.info("Sending GetOrder SOAP request for orderId: {}", orderId);
-
-        GetOrderRequest request = new GetOrderRequest();
-        request.setOrderId(orderId);
-
-        GetOrderResponse response = ordersPort.getOrder(request);
-
-        log.info("Received GetOrder SOAP response for orderId: {}", orderId);
-
-        return response;
-    }
+    CompletableFuture<GetOrderResponse> getOrder(String orderId);
 }
@@ -0,0 +1,101 @@
+package com.demo.rest.client;
+
+import com.demo.rest.exception.ConcurrencyLimitExceededException;
+import jakarta.xml.ws.WebServiceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * SOAP Client returning the raw GetOrder response, for the streaming
+ * transcoder (orders.transcode.enabled=true).
+ *
+ * The request envelope is a fixed template, and the response body is
+ * handed over as a stream, unparsed: GetOrderJsonTranscoder reads it with
+ * StAX. Runs on the JDK HttpClient, which keeps its connections alive, with
+ * the soapClientExecutor and the soap.client timeouts of the other
+ * transports.
+ *
+ * Unlike SoapOrderClient.getOrder, calls are not coalesced: a response
+ * stream can only be read once. They count against the same
+ * AdaptiveConcurrencyLimiter, until the response headers arrive.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.transcode.enabled", havingValue = "true")
+public class SoapOrderXmlClient {
+
+    private static final String GET_ORDER_ENVELOPE =
+            "<soapenv:Envelope xmlns:soapenv=\"http://schemas.xmlsoap.org/soap/envelope/\""
+                    + " xmlns:ord=\"http://demo.com/soap/order\"><soapenv:Body>"
+                    + "<ord:GetOrderRequest><ord:orderId>%s</ord:orderId></ord:GetOrderRequest>"
+                    + "</soapenv:Body></soapenv:Envelope>";
+
+    private final URI serviceUri;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public SoapOrderXmlClient(@Value("${soap.service.url}") String soapServiceUrl,
+                              @Value("${soap.client.connect-timeout}") Duration connectTimeout,
+                              @Value("${soap.client.request-timeout}") Duration requestTimeout,
+                              ThreadPoolTaskExecutor soapClientExecutor,
+                              AdaptiveConcurrencyLimiter limiter) {
+        this.serviceUri = URI.create(soapServiceUrl);
+        this.requestTimeout = requestTimeout;
+        this.limiter = limiter;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .executor(soapClientExecutor)
+                .build();
+    }
+
+    /**
+     * Send a GetOrder request to the SOAP service.
+     *
+     * The body is returned for any HTTP status: a SOAP fault comes with
+     * status 500 and is detected by the transcoder.
+     *
+     * @param orderId The order ID to retrieve
+     * @return Future of the SOAP response body; the caller must close it
+     */
+    public CompletableFuture<InputStream> getOrder(String orderId) {
+        log.info("Sending GetOrder SOAP request for orderId: {} (streaming)", orderId);
+
+        HttpRequest request = HttpRequest.newBuilder(serviceUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        GET_ORDER_ENVELOPE.formatted(escapeXml(orderId))))
+                .build();
+
+        return limiter.execute(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()))
+                .handle((response, error) -> {
+                    if (error instanceof ConcurrencyLimitExceededException limitExceeded) {
+                        throw limitExceeded;
+                    }
+                    if (error != null) {
+                        throw new WebServiceException("GetOrder SOAP request failed", error.getCause() != null
+                                ? error.getCause() : error);
+                    }
+                    log.info("Received GetOrder SOAP response for orderId: {} (HTTP {})",
+                            orderId, response.statusCode());
+                    return response.body();
+                });
+    }
+
+    private static String escapeXml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
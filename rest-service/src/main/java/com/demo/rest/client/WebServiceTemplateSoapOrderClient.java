@@ -0,0 +1,96 @@
+package com.demo.rest.client;
+
+import com.demo.rest.generated.CreateOrderRequest;
+import com.demo.rest.generated.CreateOrderResponse;
+import com.demo.rest.generated.GetOrderRequest;
+import com.demo.rest.generated.GetOrderResponse;
+import com.demo.singleflight.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.ws.client.core.WebServiceTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * SOAP Client for communicating with the Order SOAP Service over Spring-WS
+ * (soap.client.transport=httpclient5).
+ *
+ * The WebServiceTemplate marshals the wsimport-generated JAXB types and sends
+ * them through a pooled Apache HttpClient 5 (see HttpClientSoapClientConfig),
+ * so connections are kept alive and reused instead of being opened per call.
+ * WebServiceTemplate is blocking; calls run on the soapClientExecutor.
+ *
+ * Concurrent GetOrder calls for the same order share one SOAP call, and
+ * calls over the AdaptiveConcurrencyLimiter's limit fail without being sent.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "soap.client.transport", havingValue = "httpclient5")
+public class WebServiceTemplateSoapOrderClient implements SoapOrderClient {
+
+    private final WebServiceTemplate ordersWebServiceTemplate;
+    private final ThreadPoolTaskExecutor soapClientExecutor;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final SingleFlight<String, GetOrderResponse> getOrderFlights;
+
+    public WebServiceTemplateSoapOrderClient(WebServiceTemplate ordersWebServiceTemplate,
+                                             ThreadPoolTaskExecutor soapClientExecutor,
+                                             AdaptiveConcurrencyLimiter limiter,
+                                             MeterRegistry meterRegistry) {
+        this.ordersWebServiceTemplate = ordersWebServiceTemplate;
+        this.soapClientExecutor = soapClientExecutor;
+        this.limiter = limiter;
+        this.getOrderFlights = new SingleFlight<>("getOrder", meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<CreateOrderResponse> createOrder(CreateOrderRequest request) {
+        log.info("Sending CreateOrder SOAP request for customer: {}",
+                request.getCustomer().getCustomerId());
+
+        return call(() -> {
+            CreateOrderResponse response =
+                    (CreateOrderResponse) ordersWebServiceTemplate.marshalSendAndReceive(request);
+
+            log.info("Received CreateOrder SOAP response with orderId: {}",
+                    response.getOrderId());
+
+            return response;
+        });
+    }
+
+    @Override
+    public CompletableFuture<GetOrderResponse> getOrder(String orderId) {
+        return getOrderFlights.execute(orderId, () -> sendGetOrder(orderId));
+    }
+
+    private CompletableFuture<GetOrderResponse> sendGetOrder(String orderId) {
+        log.info("Sending GetOrder SOAP request for orderId: {}", orderId);
+
+        GetOrderRequest request = new GetOrderRequest();
+        request.setOrderId(orderId);
+
+        return call(() -> {
+            GetOrderResponse response = (GetOrderResponse) ordersWebServiceTemplate.marshalSendAndReceive(request);
+
+            log.info("Received GetOrder SOAP response for orderId: {}", orderId);
+
+            return response;
+        });
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<T> soapCall) {
+        return limiter.execute(() -> {
+            try {
+                return CompletableFuture.supplyAsync(soapCall, soapClientExecutor);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+}
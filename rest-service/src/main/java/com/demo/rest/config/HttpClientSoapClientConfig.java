@@ -0,0 +1,118 @@
+package com.demo.rest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.transport.http.HttpComponents5MessageSender;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the SOAP client using Spring-WS over a pooled Apache
+ * HttpClient 5 (soap.client.transport=httpclient5).
+ *
+ * Unlike the JAX-WS default transport, this gives control over:
+ * 1. Pool size, in total and per route (soap.client.pool.*)
+ * 2. Keep-alive: connections live up to time-to-live and idle ones are evicted
+ * 3. Connect, response and pool-wait timeouts
+ *
+ * Pool usage is published as httpcomponents.httpclient.pool.* metrics,
+ * tagged httpclient=soap-orders.
+ */
+@Configuration
+@ConditionalOnProperty(name = "soap.client.transport", havingValue = "httpclient5")
+public class HttpClientSoapClientConfig {
+
+    @Value("${soap.service.url}")
+    private String soapServiceUrl;
+
+    @Value("${soap.client.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${soap.client.request-timeout}")
+    private Duration requestTimeout;
+
+    /**
+     * Connection pool shared by all SOAP calls.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager soapConnectionManager(
+            @Value("${soap.client.pool.max-total}") int maxTotal,
+            @Value("${soap.client.pool.max-per-route}") int maxPerRoute,
+            @Value("${soap.client.pool.time-to-live}") Duration timeToLive,
+            @Value("${soap.client.pool.validate-after-inactivity}") Duration validateAfterInactivity) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(requestTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
+                .build();
+    }
+
+    /**
+     * HttpClient over the pool.
+     *
+     * RemoveSoapHeadersInterceptor must run first: Spring-WS sets
+     * Content-Length itself, which HttpClient otherwise rejects.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient soapHttpClient(
+            PoolingHttpClientConnectionManager soapConnectionManager,
+            @Value("${soap.client.pool.max-idle}") Duration maxIdle) {
+        return HttpClients.custom()
+                .setConnectionManager(soapConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                        .setResponseTimeout(Timeout.of(requestTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(maxIdle))
+                .addRequestInterceptorFirst(new HttpComponents5MessageSender.RemoveSoapHeadersInterceptor())
+                .build();
+    }
+
+    @Bean
+    public Jaxb2Marshaller ordersMarshaller() {
+        Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+        marshaller.setPackagesToScan("com.demo.rest.generated");
+        return marshaller;
+    }
+
+    @Bean
+    public WebServiceTemplate ordersWebServiceTemplate(CloseableHttpClient soapHttpClient,
+                                                       Jaxb2Marshaller ordersMarshaller) {
+        WebServiceTemplate template = new WebServiceTemplate(ordersMarshaller);
+        template.setDefaultUri(soapServiceUrl);
+        template.setMessageSender(new HttpComponents5MessageSender(soapHttpClient));
+        return template;
+    }
+
+    /**
+     * Publish pool usage: max, leased, available and pending connections.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder soapConnectionPoolMetrics(
+            PoolingHttpClientConnectionManager soapConnectionManager, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManagerMetricsBinder binder =
+                new PoolingHttpClientConnectionManagerMetricsBinder(soapConnectionManager, "soap-orders");
+        binder.bindTo(meterRegistry);
+        return binder;
+    }
+}
@@ -6,8 +6,11 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import io.swagger.v3.oas.annotations.servers.Server;
 import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * OpenAPI Configuration for REST API documentation.
@@ -25,6 +28,11 @@ import org.springframework.context.annotation.Configuration;
  *
  * Access Swagger UI at: http://localhost:8082/swagger-ui.html
  * Access OpenAPI spec at: http://localhost:8082/v3/api-docs
+ *
+ * By default springdoc builds the spec at runtime, scanning the controllers
+ * and DTOs. mvn -Popenapi package also generates it during the build
+ * (static/v3/api-docs.json, with a gzipped copy); the prod profile turns
+ * runtime scanning and Swagger UI off and serves that file instead.
  */
 @Configuration
 @OpenAPIDefinition(
@@ -88,4 +96,20 @@ public class OpenApiConfig {
             }
         };
     }
+
+    /**
+     * Without runtime scanning (springdoc.api-docs.enabled=false, the prod
+     * profile), forward /v3/api-docs to the document generated at build
+     * time, so clients keep the same URL.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+    public WebMvcConfigurer staticApiDocs() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addViewControllers(ViewControllerRegistry registry) {
+                registry.addViewController("/v3/api-docs").setViewName("forward:/v3/api-docs.json");
+            }
+        };
+    }
 }
@@ -0,0 +1,30 @@
+package com.demo.rest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for bulk order streams (POST /api/v1/orders:stream).
+ *
+ * Each upload takes two threads of the orderStreamExecutor for as long as
+ * it runs: one reading the request body, one writing result lines (see
+ * OrderStreamService). OrderStreamService admits at most
+ * orders.stream.max-uploads uploads, so the pool never runs out; the queue
+ * only holds the tasks of a new upload while the threads of one that just
+ * finished wind down.
+ */
+@Configuration
+public class OrderStreamConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor orderStreamExecutor(@Value("${orders.stream.max-uploads}") int maxUploads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2 * maxUploads);
+        executor.setMaxPoolSize(2 * maxUploads);
+        executor.setQueueCapacity(2 * maxUploads);
+        executor.setThreadNamePrefix("order-stream-");
+        return executor;
+    }
+}
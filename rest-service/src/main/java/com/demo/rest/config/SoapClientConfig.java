@@ -4,14 +4,23 @@ import com.demo.rest.generated.OrdersPort;
 import com.demo.rest.generated.OrdersService;
 import jakarta.xml.ws.BindingProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
 
 /**
  * Configuration for the SOAP client using JAX-WS (WSDL-first approach).
  *
  * This configuration creates a JAX-WS client from the generated stubs.
  * The stubs are generated from the WSDL file during build time by jaxws-maven-plugin.
+ *
+ * Async SOAP calls run on a dedicated, bounded executor; its pool size
+ * bounds the number of SOAP calls in flight, independently of the number
+ * of Tomcat worker threads. The executor is shared by both transports; the
+ * JAX-WS beans are only created for soap.client.transport=jaxws.
  */
 @Configuration
 public class SoapClientConfig {
@@ -19,6 +28,12 @@ public class SoapClientConfig {
     @Value("${soap.service.url}")
     private String soapServiceUrl;
 
+    @Value("${soap.client.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${soap.client.request-timeout}")
+    private Duration requestTimeout;
+
     /**
      * Create the JAX-WS service client.
      *
@@ -26,8 +41,29 @@ public class SoapClientConfig {
      * It provides type-safe access to the SOAP operations.
      */
     @Bean
-    public OrdersService ordersService() {
-        return new OrdersService();
+    @ConditionalOnProperty(name = "soap.client.transport", havingValue = "jaxws")
+    public OrdersService ordersService(ThreadPoolTaskExecutor soapClientExecutor) {
+        OrdersService service = new OrdersService();
+        service.setExecutor(soapClientExecutor);
+        return service;
+    }
+
+    /**
+     * Executor running async SOAP calls and their AsyncHandler callbacks.
+     * A full queue rejects the call, which the REST API answers with 503.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor soapClientExecutor(
+            @Value("${soap.client.async.pool-size}") int poolSize,
+            @Value("${soap.client.async.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("soap-client-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
     }
 
     /**
@@ -37,6 +73,7 @@ public class SoapClientConfig {
      * This allows the endpoint to be different from the WSDL-defined location.
      */
     @Bean
+    @ConditionalOnProperty(name = "soap.client.transport", havingValue = "jaxws")
     public OrdersPort ordersPort(OrdersService ordersService) {
         OrdersPort port = ordersService.getOrdersPortSoap11();
 
@@ -47,6 +84,12 @@ public class SoapClientConfig {
                 soapServiceUrl
         );
 
+        // JAX-WS RI timeouts, so a stuck backend cannot hold client threads forever
+        bindingProvider.getRequestContext().put(
+                "com.sun.xml.ws.connect.timeout", (int) connectTimeout.toMillis());
+        bindingProvider.getRequestContext().put(
+                "com.sun.xml.ws.request.timeout", (int) requestTimeout.toMillis());
+
         return port;
     }
 }
@@ -20,6 +20,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST Controller for Order operations.
  *
@@ -31,6 +33,18 @@ import org.springframework.web.bind.annotation.*;
  *
  * The flow is:
  * REST Client -> Controller -> Service -> MapStruct -> SOAP Client -> SOAP Service
+ *
+ * Handlers return CompletableFuture, so Spring MVC suspends the request and
+ * frees the Tomcat thread for the SOAP round trip. A request still pending
+ * after spring.mvc.async.request-timeout is answered with 504.
+ *
+ * GetOrder writes the JSON bytes cached with the order (see OrderCache)
+ * and sends its strong ETag; a request whose If-None-Match holds that ETag
+ * gets 304 with no body.
+ *
+ * With orders.transcode.enabled=true, GetOrder streams orders that are not
+ * cached: the JSON is transcoded from the SOAP XML straight into the
+ * response (see OrderService.streamOrder). Streamed orders have no ETag.
  */
 @Slf4j
 @RestController
@@ -51,7 +65,7 @@ public class OrderController {
      * 4. Returns the order confirmation
      *
      * @param requestDto The order creation request
-     * @return ResponseEntity with created order details
+     * @return Future of the ResponseEntity with created order details
      */
     @PostMapping(
             consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -87,28 +101,40 @@ public class OrderController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponseDto.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "504",
+                    description = "SOAP backend did not respond in time",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
             )
     })
-    public ResponseEntity<CreateOrderResponseDto> createOrder(
+    public CompletableFuture<ResponseEntity<CreateOrderResponseDto>> createOrder(
             @Valid @RequestBody CreateOrderRequestDto requestDto) {
 
         log.info("Received create order request for customer: {}",
                 requestDto.getCustomer().getCustomerId());
 
-        CreateOrderResponseDto response = orderService.createOrder(requestDto);
-
-        log.info("Order created: {}", response.getOrderId());
+        return orderService.createOrder(requestDto)
+                .thenApply(response -> {
+                    log.info("Order created: {}", response.getOrderId());
 
-        return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(response);
+                    return ResponseEntity
+                            .status(HttpStatus.CREATED)
+                            .body(response);
+                });
     }
 
     /**
      * Get an existing order by ID.
      *
+     * Spring MVC compares the ETag with If-None-Match and answers 304 when
+     * it matches.
+     *
      * @param orderId The order ID to retrieve
-     * @return ResponseEntity with order details
+     * @return Future of the ResponseEntity with order details
      */
     @GetMapping(
             value = "/{orderId}",
@@ -116,7 +142,8 @@ public class OrderController {
     )
     @Operation(
             summary = "Get order by ID",
-            description = "Retrieves order details from the SOAP backend service by order ID."
+            description = "Retrieves order details from the SOAP backend service by order ID. " +
+                    "Responses carry an ETag; send it back in If-None-Match to get 304 while the order is unchanged."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -127,6 +154,10 @@ public class OrderController {
                             schema = @Schema(implementation = GetOrderResponseDto.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Order unchanged since the ETag in If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Order not found",
@@ -142,16 +173,32 @@ public class OrderController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponseDto.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "504",
+                    description = "SOAP backend did not respond in time",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
             )
     })
-    public ResponseEntity<GetOrderResponseDto> getOrder(
-            @Parameter(description = "Order ID", example = "ORD-A1B2C3D4")
+    public CompletableFuture<ResponseEntity<?>> getOrder(
+            @Parameter(description = "Order ID", example = "ORD-A1B2C3D4-E5F6-4A7B-8C9D-0E1F2A3B4C5D")
             @PathVariable String orderId) {
 
         log.info("Received get order request for orderId: {}", orderId);
 
-        GetOrderResponseDto response = orderService.getOrder(orderId);
-
-        return ResponseEntity.ok(response);
+        if (orderService.canStreamOrder(orderId)) {
+            return orderService.streamOrder(orderId)
+                    .thenApply(body -> ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(body));
+        }
+        return orderService.getOrder(orderId)
+                .thenApply(order -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(order.getEtag())
+                        .body(order.getJson()));
     }
 }
@@ -0,0 +1,95 @@
+package com.demo.rest.controller;
+
+import com.demo.rest.dto.CreateOrderRequestDto;
+import com.demo.rest.dto.ErrorResponseDto;
+import com.demo.rest.dto.OrderStreamResultDto;
+import com.demo.rest.service.OrderStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.InputStream;
+
+/**
+ * REST Controller for bulk order creation.
+ *
+ * POST /api/v1/orders:stream takes newline-delimited JSON, one
+ * CreateOrderRequestDto per line, and answers with newline-delimited JSON,
+ * one OrderStreamResultDto per input line, in the order the creates
+ * complete. Results are streamed while the upload is still being read, so
+ * clients must read them as they send (e.g. curl --data-binary @orders.ndjson).
+ *
+ * The orders go through the same OrderService.createOrder as
+ * POST /api/v1/orders (see OrderStreamService).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "Orders", description = "Order management API - REST frontend for SOAP backend")
+public class OrderStreamController {
+
+    private final OrderStreamService orderStreamService;
+
+    /**
+     * Create orders from an NDJSON stream.
+     *
+     * @param body The request body, one order per line
+     * @param request The request
+     * @return ResponseEntity streaming one result line per order
+     */
+    @PostMapping(
+            value = "/orders:stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Operation(
+            summary = "Create orders from a stream",
+            description = "Creates one order per line of newline-delimited JSON, with bounded concurrency " +
+                    "against the SOAP backend. Streams back one result line per order as soon as it completes, " +
+                    "with the line number of the order and the status a single create would have returned.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = CreateOrderRequestDto.class)
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream of order results",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = OrderStreamResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many order streams in progress",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    public ResponseEntity<ResponseBodyEmitter> createOrders(InputStream body, WebRequest request) {
+        log.info("Received order stream");
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(orderStreamService.createOrders(body, request));
+    }
+}
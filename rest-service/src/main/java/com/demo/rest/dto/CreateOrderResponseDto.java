@@ -21,7 +21,7 @@ import java.time.LocalDateTime;
 @Schema(description = "Response payload after creating an order")
 public class CreateOrderResponseDto {
 
-    @Schema(description = "Generated order ID", example = "ORD-A1B2C3D4")
+    @Schema(description = "Generated order ID", example = "ORD-A1B2C3D4-E5F6-4A7B-8C9D-0E1F2A3B4C5D")
     private String orderId;
 
     @Schema(description = "Order status", example = "CONFIRMED")
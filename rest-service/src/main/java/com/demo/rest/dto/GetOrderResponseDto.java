@@ -21,7 +21,7 @@ import java.util.List;
 @Schema(description = "Response payload containing order details")
 public class GetOrderResponseDto {
 
-    @Schema(description = "Order ID", example = "ORD-A1B2C3D4")
+    @Schema(description = "Order ID", example = "ORD-A1B2C3D4-E5F6-4A7B-8C9D-0E1F2A3B4C5D")
     private String orderId;
 
     @Schema(description = "Customer information")
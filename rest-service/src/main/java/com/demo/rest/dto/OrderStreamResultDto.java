@@ -0,0 +1,34 @@
+package com.demo.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * REST DTO for one result line of a bulk order stream.
+ * Carries either the created order or the error, as POST /api/v1/orders
+ * would have returned them for that line.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Result of one order of a bulk order stream")
+public class OrderStreamResultDto {
+
+    @Schema(description = "Line of the order in the uploaded stream, starting at 1", example = "1")
+    private long line;
+
+    @Schema(description = "HTTP status a single create would have returned", example = "201")
+    private int status;
+
+    @Schema(description = "Created order, on success")
+    private CreateOrderResponseDto order;
+
+    @Schema(description = "Error, on failure")
+    private ErrorResponseDto error;
+}
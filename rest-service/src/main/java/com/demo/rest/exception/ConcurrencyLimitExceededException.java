@@ -0,0 +1,21 @@
+package com.demo.rest.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a SOAP call is shed because the adaptive concurrency limit
+ * is reached (see AdaptiveConcurrencyLimiter).
+ * GlobalExceptionHandler answers it with 503 and Retry-After.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(int limit, Duration retryAfter) {
+        super("SOAP concurrency limit of " + limit + " reached");
+        this.retryAfter = retryAfter;
+    }
+}
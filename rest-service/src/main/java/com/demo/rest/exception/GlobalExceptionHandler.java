@@ -4,6 +4,7 @@ import com.demo.rest.dto.ErrorResponseDto;
 import jakarta.xml.ws.WebServiceException;
 import jakarta.xml.ws.soap.SOAPFaultException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,8 +12,12 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.ws.client.WebServiceClientException;
+import org.springframework.ws.soap.client.SoapFaultClientException;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -90,6 +95,128 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
     }
 
+    /**
+     * Handle SOAP fault exceptions (Spring-WS, httpclient5 transport).
+     */
+    @ExceptionHandler(SoapFaultClientException.class)
+    public ResponseEntity<ErrorResponseDto> handleSoapFaultClientException(
+            SoapFaultClientException ex,
+            WebRequest request) {
+
+        log.error("SOAP fault: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("SOAP_FAULT")
+                .message("Error from backend service: " + ex.getFaultStringOrReason())
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
+    }
+
+    /**
+     * Handle Spring-WS connection and transport errors (httpclient5 transport).
+     */
+    @ExceptionHandler(WebServiceClientException.class)
+    public ResponseEntity<ErrorResponseDto> handleWebServiceClientException(
+            WebServiceClientException ex,
+            WebRequest request) {
+
+        log.error("SOAP service error: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("SERVICE_UNAVAILABLE")
+                .message("Backend SOAP service is unavailable. Please try again later.")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    /**
+     * Handle async requests the SOAP backend did not answer in time.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponseDto> handleAsyncRequestTimeoutException(
+            AsyncRequestTimeoutException ex,
+            WebRequest request) {
+
+        log.error("SOAP service call timed out");
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("GATEWAY_TIMEOUT")
+                .message("Backend SOAP service did not respond in time. Please try again later.")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+
+    /**
+     * Handle SOAP calls rejected by a saturated SOAP client executor.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponseDto> handleRejectedExecutionException(
+            RejectedExecutionException ex,
+            WebRequest request) {
+
+        log.warn("SOAP client saturated: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("SERVICE_UNAVAILABLE")
+                .message("Too many requests in flight to the backend SOAP service. Please try again later.")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    /**
+     * Handle order streams refused because too many are running.
+     */
+    @ExceptionHandler(OrderStreamLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleOrderStreamLimitExceededException(
+            OrderStreamLimitExceededException ex,
+            WebRequest request) {
+
+        log.warn("Order stream refused: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("SERVICE_UNAVAILABLE")
+                .message("Too many order streams in progress. Please try again later.")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
+    /**
+     * Handle SOAP calls shed by the adaptive concurrency limit.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDto> handleConcurrencyLimitExceededException(
+            ConcurrencyLimitExceededException ex,
+            WebRequest request) {
+
+        log.warn("SOAP concurrency limit reached: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .errorCode("SERVICE_UNAVAILABLE")
+                .message("Backend SOAP service is overloaded. Please try again later.")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(error);
+    }
+
     /**
      * Handle all other exceptions.
      */
@@ -0,0 +1,17 @@
+package com.demo.rest.exception;
+
+/**
+ * Thrown when an order stream is refused because orders.stream.max-uploads
+ * uploads are already running (see OrderStreamService).
+ * GlobalExceptionHandler answers it with 503.
+ */
+public class OrderStreamLimitExceededException extends RuntimeException {
+
+    public OrderStreamLimitExceededException(String message) {
+        super(message);
+    }
+
+    public OrderStreamLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
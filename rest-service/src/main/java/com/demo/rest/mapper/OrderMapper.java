@@ -11,10 +11,6 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
-import javax.xml.datatype.XMLGregorianCalendar;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-
 /**
  * MapStruct mapper for Order conversion.
  *
@@ -24,9 +20,11 @@ import java.time.LocalDateTime;
  *
  * Demonstrates:
  * - Using other mappers (CustomerMapper, OrderItemMapper)
- * - Custom type conversions (XMLGregorianCalendar <-> LocalDateTime/LocalDate)
  * - Named mapping methods for different conversions
  * - Enum to String conversion
+ *
+ * Dates need no conversion: the generated SOAP types already use
+ * LocalDateTime / LocalDate (see src/jaxws/java-time.xjb).
  */
 @Mapper(componentModel = "spring", uses = {CustomerMapper.class, OrderItemMapper.class})
 public interface OrderMapper {
@@ -54,15 +52,11 @@ public interface OrderMapper {
      *
      * Uses custom mapping methods for:
      * - status: OrderStatusType enum to String
-     * - estimatedDeliveryDate: XMLGregorianCalendar to LocalDate
-     * - createdAt: XMLGregorianCalendar to LocalDateTime
      *
      * @param soapResponse The SOAP response from the SOAP service
      * @return The REST response DTO to return to the client
      */
     @Mapping(target = "status", source = "status", qualifiedByName = "orderStatusToString")
-    @Mapping(target = "estimatedDeliveryDate", source = "estimatedDeliveryDate", qualifiedByName = "xmlCalendarToLocalDate")
-    @Mapping(target = "createdAt", source = "createdAt", qualifiedByName = "xmlCalendarToLocalDateTime")
     CreateOrderResponseDto toCreateOrderResponseDto(CreateOrderResponse soapResponse);
 
     /**
@@ -72,8 +66,6 @@ public interface OrderMapper {
      * @return The REST response DTO to return to the client
      */
     @Mapping(target = "status", source = "status", qualifiedByName = "orderStatusToString")
-    @Mapping(target = "createdAt", source = "createdAt", qualifiedByName = "xmlCalendarToLocalDateTime")
-    @Mapping(target = "updatedAt", source = "updatedAt", qualifiedByName = "xmlCalendarToLocalDateTime")
     GetOrderResponseDto toGetOrderResponseDto(GetOrderResponse soapResponse);
 
     // ==================== CUSTOM TYPE CONVERTERS ====================
@@ -88,39 +80,4 @@ public interface OrderMapper {
     default String orderStatusToString(OrderStatusType status) {
         return status != null ? status.value() : null;
     }
-
-    /**
-     * Convert XMLGregorianCalendar to LocalDateTime.
-     *
-     * XMLGregorianCalendar is the standard XML date-time type used in SOAP/JAXB.
-     * We convert it to Java 8 LocalDateTime for the REST layer.
-     *
-     * @param calendar The XML calendar from SOAP
-     * @return The LocalDateTime for REST
-     */
-    @Named("xmlCalendarToLocalDateTime")
-    default LocalDateTime xmlCalendarToLocalDateTime(XMLGregorianCalendar calendar) {
-        if (calendar == null) {
-            return null;
-        }
-        return calendar.toGregorianCalendar().toZonedDateTime().toLocalDateTime();
-    }
-
-    /**
-     * Convert XMLGregorianCalendar to LocalDate.
-     *
-     * @param calendar The XML calendar from SOAP
-     * @return The LocalDate for REST
-     */
-    @Named("xmlCalendarToLocalDate")
-    default LocalDate xmlCalendarToLocalDate(XMLGregorianCalendar calendar) {
-        if (calendar == null) {
-            return null;
-        }
-        return LocalDate.of(
-                calendar.getYear(),
-                calendar.getMonth(),
-                calendar.getDay()
-        );
-    }
 }
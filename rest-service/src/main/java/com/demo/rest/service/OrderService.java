@@ -1,6 +1,9 @@
 package com.demo.rest.service;
 
+import com.demo.rest.cache.CachedOrder;
+import com.demo.rest.cache.OrderCache;
 import com.demo.rest.client.SoapOrderClient;
+import com.demo.rest.client.SoapOrderXmlClient;
 import com.demo.rest.dto.CreateOrderRequestDto;
 import com.demo.rest.dto.CreateOrderResponseDto;
 import com.demo.rest.dto.GetOrderResponseDto;
@@ -8,10 +11,15 @@ import com.demo.rest.generated.CreateOrderRequest;
 import com.demo.rest.generated.CreateOrderResponse;
 import com.demo.rest.generated.GetOrderResponse;
 import com.demo.rest.mapper.OrderMapper;
+import com.demo.rest.transcode.GetOrderJsonTranscoder;
+import com.demo.rest.transcode.TranscodedJson;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Service layer for Order operations.
  *
@@ -24,6 +32,18 @@ import org.springframework.stereotype.Service;
  *
  * This demonstrates the typical integration pattern:
  * REST API -> Service -> Mapper -> SOAP Client -> SOAP Service
+ *
+ * Methods return futures: the SOAP call is asynchronous, and mapping the
+ * response runs when it arrives, on the SOAP client executor.
+ *
+ * GetOrder reads through the OrderCache, which createOrder warms with the
+ * order it just created. It returns the order as serialized JSON with its
+ * ETag (CachedOrder), ready to send or to answer If-None-Match with 304.
+ *
+ * With orders.transcode.enabled=true, orders that are not cached can be
+ * streamed instead (streamOrder): the SOAP response XML is transcoded
+ * straight into the JSON response, skipping the JAXB object, the DTO and
+ * the cache. Streamed orders are not cached.
  */
 @Slf4j
 @Service
@@ -32,6 +52,9 @@ public class OrderService {
 
     private final SoapOrderClient soapOrderClient;
     private final OrderMapper orderMapper;
+    private final OrderCache orderCache;
+    private final Optional<SoapOrderXmlClient> soapOrderXmlClient;
+    private final GetOrderJsonTranscoder getOrderJsonTranscoder;
 
     /**
      * Create a new order.
@@ -44,9 +67,9 @@ public class OrderService {
      * 5. MapStruct converts to REST DTO (CreateOrderResponseDto)
      *
      * @param requestDto The REST request from the client
-     * @return The REST response for the client
+     * @return Future of the REST response for the client
      */
-    public CreateOrderResponseDto createOrder(CreateOrderRequestDto requestDto) {
+    public CompletableFuture<CreateOrderResponseDto> createOrder(CreateOrderRequestDto requestDto) {
         log.info("Processing create order request for customer: {}",
                 requestDto.getCustomer().getCustomerId());
 
@@ -56,42 +79,97 @@ public class OrderService {
 
         // Step 2: Call SOAP Service
         log.debug("Calling SOAP service...");
-        CreateOrderResponse soapResponse = soapOrderClient.createOrder(soapRequest);
+        return soapOrderClient.createOrder(soapRequest)
+                .thenApply(soapResponse -> {
+                    // Step 3: Map SOAP Response -> REST DTO using MapStruct
+                    log.debug("Mapping SOAP response to REST DTO...");
+                    CreateOrderResponseDto responseDto = orderMapper.toCreateOrderResponseDto(soapResponse);
 
-        // Step 3: Map SOAP Response -> REST DTO using MapStruct
-        log.debug("Mapping SOAP response to REST DTO...");
-        CreateOrderResponseDto responseDto = orderMapper.toCreateOrderResponseDto(soapResponse);
+                    // Step 4: Warm the GetOrder cache
+                    orderCache.put(orderMapper.toGetOrderResponseDto(toGetOrderResponse(soapRequest, soapResponse)));
 
-        log.info("Order created successfully with ID: {}", responseDto.getOrderId());
+                    log.info("Order created successfully with ID: {}", responseDto.getOrderId());
 
-        return responseDto;
+                    return responseDto;
+                });
     }
 
     /**
      * Get an existing order by ID.
      *
      * Flow:
-     * 1. Order ID comes in from REST controller
+     * 1. Order ID comes in from REST controller; served from the cache if present
      * 2. SOAP client sends GetOrder request
      * 3. SOAP response (GetOrderResponse) received
      * 4. MapStruct converts to REST DTO (GetOrderResponseDto)
+     * 5. The cache serializes it to JSON once, with its ETag
      *
      * @param orderId The order ID to retrieve
-     * @return The REST response with order details
+     * @return Future of the GetOrderResponseDto JSON and its ETag
      */
-    public GetOrderResponseDto getOrder(String orderId) {
+    public CompletableFuture<CachedOrder> getOrder(String orderId) {
         log.info("Processing get order request for orderId: {}", orderId);
 
-        // Step 1: Call SOAP Service
-        log.debug("Calling SOAP service...");
-        GetOrderResponse soapResponse = soapOrderClient.getOrder(orderId);
+        return orderCache.get(orderId, () -> {
+            // Step 1: Call SOAP Service
+            log.debug("Order not cached, calling SOAP service...");
+            return soapOrderClient.getOrder(orderId)
+                    .thenApply(soapResponse -> {
+                        // Step 2: Map SOAP Response -> REST DTO using MapStruct
+                        log.debug("Mapping SOAP response to REST DTO...");
+                        GetOrderResponseDto responseDto = orderMapper.toGetOrderResponseDto(soapResponse);
+
+                        log.info("Order retrieved successfully: {}", orderId);
 
-        // Step 2: Map SOAP Response -> REST DTO using MapStruct
-        log.debug("Mapping SOAP response to REST DTO...");
-        GetOrderResponseDto responseDto = orderMapper.toGetOrderResponseDto(soapResponse);
+                        return responseDto;
+                    });
+        });
+    }
 
-        log.info("Order retrieved successfully: {}", orderId);
+    /**
+     * Whether streamOrder can serve an order: transcoding is enabled and the
+     * order is not in the cache, which getOrder serves without a SOAP call.
+     *
+     * @param orderId The order ID to retrieve
+     * @return true to call streamOrder, false to call getOrder
+     */
+    public boolean canStreamOrder(String orderId) {
+        return soapOrderXmlClient.isPresent() && !orderCache.contains(orderId);
+    }
 
-        return responseDto;
+    /**
+     * Get an existing order by ID as a JSON stream.
+     *
+     * Flow:
+     * 1. SOAP client sends GetOrder request, keeping the response unparsed
+     * 2. The transcoder reads the response up to the order, raising faults
+     * 3. The returned body writes the order JSON as it reads the rest
+     *
+     * @param orderId The order ID to retrieve
+     * @return Future of the body writing the GetOrderResponseDto JSON
+     */
+    public CompletableFuture<TranscodedJson> streamOrder(String orderId) {
+        log.info("Processing get order request for orderId: {} (streaming)", orderId);
+
+        return soapOrderXmlClient.orElseThrow().getOrder(orderId)
+                .thenApply(getOrderJsonTranscoder::transcode);
+    }
+
+    /**
+     * The GetOrder response the SOAP service will give for an order it just
+     * created: the request's customer, items and notes with the created
+     * order's status, total and timestamp.
+     */
+    private static GetOrderResponse toGetOrderResponse(CreateOrderRequest request, CreateOrderResponse created) {
+        GetOrderResponse order = new GetOrderResponse();
+        order.setOrderId(created.getOrderId());
+        order.setCustomer(request.getCustomer());
+        order.getItems().addAll(request.getItems());
+        order.setStatus(created.getStatus());
+        order.setTotalAmount(created.getTotalAmount());
+        order.setNotes(request.getNotes());
+        order.setCreatedAt(created.getCreatedAt());
+        order.setUpdatedAt(created.getCreatedAt());
+        return order;
     }
 }
@@ -0,0 +1,322 @@
+package com.demo.rest.service;
+
+import com.demo.rest.dto.CreateOrderRequestDto;
+import com.demo.rest.dto.CreateOrderResponseDto;
+import com.demo.rest.dto.ErrorResponseDto;
+import com.demo.rest.dto.OrderStreamResultDto;
+import com.demo.rest.exception.GlobalExceptionHandler;
+import com.demo.rest.exception.OrderStreamLimitExceededException;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk order creation from an NDJSON stream.
+ *
+ * Each upload runs on two threads of the orderStreamExecutor:
+ * 1. The reader parses the request body one CreateOrderRequestDto at a
+ *    time with Jackson's streaming parser (MappingIterator), validates it
+ *    and starts OrderService.createOrder
+ * 2. The writer sends one OrderStreamResultDto line per input as soon as
+ *    it is ready, in completion order
+ *
+ * Every input line holds one of orders.stream.concurrency permits from the
+ * moment it is read until its result line is written. With all permits
+ * taken, the reader stops reading the request body, so the upload runs at
+ * the pace of soap-service and of the client reading its results, and
+ * memory stays bounded however long the upload is. Clients must read
+ * results while they upload.
+ *
+ * Result lines are written by the writer only, so a client reading them
+ * slowly never holds a SOAP client thread.
+ *
+ * A line that is not a valid order gets an error line and the upload goes
+ * on. Malformed JSON gets an error line and ends the upload: the parser
+ * cannot find the next line after it. Errors from creating an order are
+ * the responses GlobalExceptionHandler gives for POST /api/v1/orders.
+ */
+@Slf4j
+@Service
+public class OrderStreamService {
+
+    private static final ExceptionHandlerMethodResolver EXCEPTION_HANDLERS =
+            new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+
+    // Uploads run as long as the client keeps sending; each create is bounded by soap.client.request-timeout
+    private static final long NO_TIMEOUT = -1;
+
+    private static final Object END = new Object();
+
+    private final OrderService orderService;
+    private final Validator validator;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ObjectReader requestReader;
+    private final ThreadPoolTaskExecutor orderStreamExecutor;
+    private final int concurrency;
+    private final Semaphore uploads;
+
+    public OrderStreamService(OrderService orderService,
+                              Validator validator,
+                              GlobalExceptionHandler exceptionHandler,
+                              ObjectMapper objectMapper,
+                              ThreadPoolTaskExecutor orderStreamExecutor,
+                              @Value("${orders.stream.concurrency}") int concurrency,
+                              @Value("${orders.stream.max-uploads}") int maxUploads) {
+        this.orderService = orderService;
+        this.validator = validator;
+        this.exceptionHandler = exceptionHandler;
+        this.requestReader = objectMapper.readerFor(CreateOrderRequestDto.class);
+        this.orderStreamExecutor = orderStreamExecutor;
+        this.concurrency = concurrency;
+        this.uploads = new Semaphore(maxUploads);
+    }
+
+    /**
+     * Create the orders of an NDJSON upload.
+     *
+     * @param body The request body, one CreateOrderRequestDto per line
+     * @param request The request, for the path of error lines
+     * @return The emitter receiving one OrderStreamResultDto line per order
+     * @throws OrderStreamLimitExceededException if orders.stream.max-uploads uploads are running
+     */
+    public ResponseBodyEmitter createOrders(InputStream body, WebRequest request) {
+        if (!uploads.tryAcquire()) {
+            throw new OrderStreamLimitExceededException("Too many order streams in progress");
+        }
+        log.info("Starting order stream");
+
+        Upload upload = new Upload(new ResponseBodyEmitter(NO_TIMEOUT), request);
+        try {
+            orderStreamExecutor.execute(upload::write);
+        } catch (RejectedExecutionException e) {
+            uploads.release();
+            upload.emitter.complete();
+            throw new OrderStreamLimitExceededException("Order stream executor is saturated", e);
+        }
+        try {
+            orderStreamExecutor.execute(() -> upload.read(body));
+        } catch (RejectedExecutionException e) {
+            // The writer completes the emitter and releases the upload permit
+            upload.results.add(END);
+            throw new OrderStreamLimitExceededException("Order stream executor is saturated", e);
+        }
+        return upload.emitter;
+    }
+
+    /**
+     * One running upload.
+     */
+    private final class Upload {
+
+        private final ResponseBodyEmitter emitter;
+        private final WebRequest request;
+        private final Semaphore permits = new Semaphore(concurrency);
+        // Never full: each result holds a permit until written, plus END
+        private final BlockingQueue<Object> results = new ArrayBlockingQueue<>(concurrency + 1);
+        private volatile boolean aborted;
+
+        Upload(ResponseBodyEmitter emitter, WebRequest request) {
+            this.emitter = emitter;
+            this.request = request;
+            emitter.onError(error -> aborted = true);
+        }
+
+        /**
+         * Read orders until the end of the body, malformed JSON or a
+         * client gone, then wait for every result to be written.
+         *
+         * A permit is taken before reading each line, and handed over to
+         * its result.
+         */
+        void read(InputStream body) {
+            try {
+                permits.acquire();
+                try (MappingIterator<CreateOrderRequestDto> orders = requestReader.readValues(body)) {
+                    while (!aborted && orders.hasNextValue()) {
+                        long line = orders.getParser().currentTokenLocation().getLineNr();
+                        if (!read(line, orders)) {
+                            return;
+                        }
+                        permits.acquire();
+                    }
+                    permits.release();
+                }
+            } catch (JsonParseException e) {
+                // Between lines: no order started
+                publish(invalid(e.getLocation().getLineNr(), "INVALID_JSON", e.getOriginalMessage()));
+            } catch (IOException e) {
+                log.warn("Order stream request body failed: {}", e.getMessage());
+                permits.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                permits.acquireUninterruptibly(concurrency);
+                results.add(END);
+            }
+        }
+
+        /**
+         * Read one order and start creating it.
+         *
+         * @return false if the line is malformed JSON, which ends the upload
+         */
+        private boolean read(long line, MappingIterator<CreateOrderRequestDto> orders) throws IOException {
+            CreateOrderRequestDto order;
+            try {
+                order = orders.nextValue();
+            } catch (JsonParseException e) {
+                publish(invalid(line, "INVALID_JSON", e.getOriginalMessage()));
+                return false;
+            } catch (JsonMappingException e) {
+                if (e.getCause() instanceof JsonParseException malformed) {
+                    publish(invalid(line, "INVALID_JSON", malformed.getOriginalMessage()));
+                    return false;
+                }
+                // The iterator skips the rest of the line
+                publish(invalid(line, "INVALID_REQUEST", e.getOriginalMessage()));
+                return true;
+            }
+            String violations = validate(order);
+            if (violations != null) {
+                publish(invalid(line, "VALIDATION_ERROR", violations));
+            } else {
+                create(line, order);
+            }
+            return true;
+        }
+
+        /**
+         * Write result lines until END, then complete the response.
+         */
+        void write() {
+            long lines = 0;
+            long failures = 0;
+            try {
+                for (Object next = results.take(); next != END; next = results.take()) {
+                    OrderStreamResultDto result = (OrderStreamResultDto) next;
+                    lines++;
+                    if (result.getError() != null) {
+                        failures++;
+                    }
+                    if (!aborted) {
+                        send(result);
+                    }
+                    permits.release();
+                }
+                log.info("Order stream completed: {} orders, {} failed{}",
+                        lines, failures, aborted ? ", client gone" : "");
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.completeWithError(e);
+            } finally {
+                uploads.release();
+            }
+        }
+
+        private void send(OrderStreamResultDto result) {
+            Set<ResponseBodyEmitter.DataWithMediaType> line = new LinkedHashSet<>(2);
+            line.add(new ResponseBodyEmitter.DataWithMediaType(result, MediaType.APPLICATION_JSON));
+            line.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+            try {
+                emitter.send(line);
+            } catch (IOException | IllegalStateException e) {
+                log.warn("Order stream client gone: {}", e.getMessage());
+                aborted = true;
+            }
+        }
+
+        private void create(long line, CreateOrderRequestDto order) {
+            CompletableFuture<CreateOrderResponseDto> created;
+            try {
+                created = orderService.createOrder(order);
+            } catch (RuntimeException e) {
+                created = CompletableFuture.failedFuture(e);
+            }
+            created.whenComplete((response, error) -> publish(error == null
+                    ? OrderStreamResultDto.builder()
+                            .line(line)
+                            .status(HttpStatus.CREATED.value())
+                            .order(response)
+                            .build()
+                    : failed(line, error)));
+        }
+
+        private String validate(CreateOrderRequestDto order) {
+            Set<ConstraintViolation<CreateOrderRequestDto>> violations = validator.validate(order);
+            return violations.isEmpty() ? null : violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(", "));
+        }
+
+        private OrderStreamResultDto invalid(long line, String errorCode, String message) {
+            return OrderStreamResultDto.builder()
+                    .line(line)
+                    .status(HttpStatus.BAD_REQUEST.value())
+                    .error(ErrorResponseDto.builder()
+                            .errorCode(errorCode)
+                            .message(message)
+                            .timestamp(LocalDateTime.now())
+                            .path(path())
+                            .build())
+                    .build();
+        }
+
+        /**
+         * The result POST /api/v1/orders would have given for the failure.
+         */
+        @SuppressWarnings("unchecked")
+        private OrderStreamResultDto failed(long line, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (!(cause instanceof Exception)) {
+                cause = new IllegalStateException(cause);
+            }
+            Method handler = EXCEPTION_HANDLERS.resolveMethodByThrowable(cause);
+            ResponseEntity<ErrorResponseDto> response = (ResponseEntity<ErrorResponseDto>)
+                    ReflectionUtils.invokeMethod(handler, exceptionHandler, cause, request);
+            return OrderStreamResultDto.builder()
+                    .line(line)
+                    .status(response.getStatusCode().value())
+                    .error(response.getBody())
+                    .build();
+        }
+
+        private void publish(OrderStreamResultDto result) {
+            results.add(result);
+        }
+
+        private String path() {
+            return request.getDescription(false).replace("uri=", "");
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.demo.rest.transcode;
+
+import com.demo.rest.generated.OrderStatusType;
+import com.demo.xmltime.XmlTime;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.xml.soap.SOAPException;
+import jakarta.xml.soap.SOAPFactory;
+import jakarta.xml.ws.WebServiceException;
+import jakarta.xml.ws.soap.SOAPFaultException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Transcodes a SOAP GetOrderResponse straight into the JSON of
+ * GetOrderResponseDto, without building the JAXB object, the DTO or a
+ * Jackson tree in between.
+ *
+ * The XSD sequences list elements in the same order as the DTO fields, so
+ * the XML is read with StAX and each value is written to the JsonGenerator
+ * as soon as it is read. The output is the same document the DTO path
+ * produces:
+ * - fields in DTO order, with null for absent optional elements and []
+ *   for a missing item list, as MapStruct and Jackson would write them
+ * - decimals, ints and statuses parsed the way JAXB parses them
+ * - date-times parsed by XmlTime, as the generated types' adapter parses
+ *   them, and serialized by the application ObjectMapper, so they follow
+ *   its date format
+ *
+ * Unknown elements are skipped, as JAXB skips them.
+ *
+ * Text is read through a reusable char buffer, so strings, decimals and
+ * date-times are not materialized as Strings on the way through.
+ */
+@Component
+@RequiredArgsConstructor
+public class GetOrderJsonTranscoder {
+
+    private static final String SOAP_ENV = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String XSI = "http://www.w3.org/2001/XMLSchema-instance";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+
+    private static final Field[] ADDRESS = {
+            Field.of("street", Kind.STRING),
+            Field.of("city", Kind.STRING),
+            Field.of("state", Kind.STRING),
+            Field.of("zipCode", Kind.STRING),
+            Field.of("country", Kind.STRING)
+    };
+    private static final Field[] CUSTOMER = {
+            Field.of("customerId", Kind.STRING),
+            Field.of("firstName", Kind.STRING),
+            Field.of("lastName", Kind.STRING),
+            Field.of("email", Kind.STRING),
+            Field.of("phone", Kind.STRING),
+            Field.of("shippingAddress", ADDRESS),
+            Field.of("billingAddress", ADDRESS)
+    };
+    private static final Field[] ITEM = {
+            Field.of("productId", Kind.STRING),
+            Field.of("productName", Kind.STRING),
+            Field.of("quantity", Kind.INT),
+            Field.of("unitPrice", Kind.DECIMAL),
+            Field.of("totalPrice", Kind.DECIMAL)
+    };
+    private static final Field[] ORDER = {
+            Field.of("orderId", Kind.STRING),
+            Field.of("customer", CUSTOMER),
+            new Field("items", Kind.ARRAY, ITEM),
+            Field.of("status", Kind.STATUS),
+            Field.of("totalAmount", Kind.DECIMAL),
+            Field.of("notes", Kind.STRING),
+            Field.of("createdAt", Kind.DATE_TIME),
+            Field.of("updatedAt", Kind.DATE_TIME)
+    };
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Transcode a SOAP GetOrder response.
+     *
+     * The response is read up to its payload right away, so that faults are
+     * raised before anything is written and can still be answered with an
+     * error status. The JSON is written when the returned body is, straight
+     * into the servlet output stream.
+     *
+     * @param soapResponse The SOAP response body; closed once transcoded
+     * @return Body writing the GetOrderResponseDto JSON
+     * @throws SOAPFaultException if the response is a SOAP fault
+     * @throws WebServiceException if the response is not a GetOrderResponse
+     */
+    public TranscodedJson transcode(InputStream soapResponse) {
+        XMLStreamReader reader;
+        try {
+            reader = open(soapResponse);
+        } catch (RuntimeException e) {
+            closeQuietly(soapResponse);
+            throw e;
+        }
+        return json -> {
+            try (soapResponse; JsonGenerator generator = objectMapper.createGenerator(
+                    StreamUtils.nonClosing(json), JsonEncoding.UTF8)) {
+                writeObject(reader, ORDER, generator, new Text());
+                reader.close();
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to transcode SOAP response", e);
+            }
+        };
+    }
+
+    /**
+     * Position a reader on the GetOrderResponse element.
+     */
+    private static XMLStreamReader open(InputStream soapResponse) {
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(soapResponse);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && SOAP_ENV.equals(reader.getNamespaceURI()) && "Body".equals(reader.getLocalName())) {
+                    reader.nextTag();
+                    if (SOAP_ENV.equals(reader.getNamespaceURI()) && "Fault".equals(reader.getLocalName())) {
+                        throw fault(reader);
+                    }
+                    if (!"GetOrderResponse".equals(reader.getLocalName())) {
+                        throw new WebServiceException("Unexpected SOAP payload: " + reader.getName());
+                    }
+                    return reader;
+                }
+            }
+            throw new WebServiceException("SOAP response has no Body");
+        } catch (XMLStreamException e) {
+            throw new WebServiceException("Unreadable SOAP response", e);
+        }
+    }
+
+    /**
+     * Write the object whose start element the reader is on, consuming it
+     * up to its end element.
+     */
+    private void writeObject(XMLStreamReader reader, Field[] fields, JsonGenerator generator, Text text)
+            throws XMLStreamException, IOException {
+        generator.writeStartObject();
+        int next = 0;
+        boolean pending = reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+        while (pending) {
+            int index = indexOf(fields, reader.getLocalName(), next);
+            if (index < 0) {
+                skipElement(reader);
+                pending = reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+                continue;
+            }
+            writeAbsent(fields, next, index, generator);
+            Field field = fields[index];
+            generator.writeFieldName(field.jsonName);
+            if (field.kind == Kind.ARRAY) {
+                // Repeated elements: consume the run into one array
+                generator.writeStartArray();
+                do {
+                    writeValue(reader, field, generator, text);
+                    pending = reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+                } while (pending && field.name.equals(reader.getLocalName()));
+                generator.writeEndArray();
+            } else {
+                writeValue(reader, field, generator, text);
+                pending = reader.nextTag() == XMLStreamConstants.START_ELEMENT;
+            }
+            next = index + 1;
+        }
+        writeAbsent(fields, next, fields.length, generator);
+        generator.writeEndObject();
+    }
+
+    private void writeValue(XMLStreamReader reader, Field field, JsonGenerator generator, Text text)
+            throws XMLStreamException, IOException {
+        if ("true".equals(reader.getAttributeValue(XSI, "nil"))) {
+            skipElement(reader);
+            generator.writeNull();
+            return;
+        }
+        switch (field.kind) {
+            case OBJECT, ARRAY -> writeObject(reader, field.children, generator, text);
+            case STRING -> {
+                // Copied from the parser's buffer straight to the generator's, no String
+                text.read(reader);
+                generator.writeString(text.chars, 0, text.length);
+            }
+            case INT -> generator.writeNumber(Integer.parseInt(reader.getElementText().trim()));
+            case DECIMAL -> {
+                text.read(reader);
+                BigDecimal value = text.toDecimal();
+                if (value == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            case STATUS -> {
+                // Matched untrimmed, as JAXB matches enum values
+                String value = reader.getElementText();
+                try {
+                    generator.writeString(OrderStatusType.fromValue(value).value());
+                } catch (IllegalArgumentException e) {
+                    generator.writeNull();
+                }
+            }
+            case DATE_TIME -> {
+                text.read(reader);
+                generator.writeObject(text.isBlank() ? null : XmlTime.parseDateTime(text));
+            }
+        }
+    }
+
+    /**
+     * Write the fields from..to-1, which had no element: null, or an empty
+     * list for repeated elements.
+     */
+    private static void writeAbsent(Field[] fields, int from, int to, JsonGenerator generator) throws IOException {
+        for (int i = from; i < to; i++) {
+            generator.writeFieldName(fields[i].jsonName);
+            if (fields[i].kind == Kind.ARRAY) {
+                generator.writeStartArray();
+                generator.writeEndArray();
+            } else {
+                generator.writeNull();
+            }
+        }
+    }
+
+    private static int indexOf(Field[] fields, String name, int from) {
+        for (int i = from; i < fields.length; i++) {
+            if (fields[i].name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static SOAPFaultException fault(XMLStreamReader reader) throws XMLStreamException {
+        String faultCode = "Server";
+        String faultString = "";
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "faultcode" -> faultCode = reader.getElementText().trim();
+                case "faultstring" -> faultString = reader.getElementText();
+                default -> skipElement(reader);
+            }
+        }
+        String localCode = faultCode.substring(faultCode.indexOf(':') + 1);
+        try {
+            return new SOAPFaultException(SOAPFactory.newInstance()
+                    .createFault(faultString, new QName(SOAP_ENV, localCode)));
+        } catch (SOAPException e) {
+            throw new WebServiceException("SOAP fault: " + faultString, e);
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+            // Nothing more to read from it anyway
+        }
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private enum Kind { STRING, INT, DECIMAL, STATUS, DATE_TIME, OBJECT, ARRAY }
+
+    private record Field(String name, Kind kind, Field[] children, SerializedString jsonName) {
+
+        Field(String name, Kind kind, Field[] children) {
+            this(name, kind, children, new SerializedString(name));
+        }
+
+        static Field of(String name, Kind kind) {
+            return new Field(name, kind, null);
+        }
+
+        static Field of(String name, Field[] children) {
+            return new Field(name, Kind.OBJECT, children);
+        }
+    }
+
+    /**
+     * Reusable buffer for the text of one element at a time.
+     */
+    private static final class Text implements CharSequence {
+
+        private char[] chars = new char[256];
+        private int length;
+
+        /**
+         * Read the text of the element the reader is on, consuming it up to
+         * its end element.
+         */
+        void read(XMLStreamReader reader) throws XMLStreamException {
+            length = 0;
+            int event;
+            while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                        || event == XMLStreamConstants.SPACE) {
+                    append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    throw new XMLStreamException("Element in text-only element", reader.getLocation());
+                }
+            }
+        }
+
+        boolean isBlank() {
+            for (int i = 0; i < length; i++) {
+                if (!isXmlWhitespace(chars[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The text as xs:decimal, as JAXB parses it: trimmed, empty is null.
+         */
+        BigDecimal toDecimal() {
+            int start = 0;
+            int end = length;
+            while (start < end && isXmlWhitespace(chars[start])) {
+                start++;
+            }
+            while (end > start && isXmlWhitespace(chars[end - 1])) {
+                end--;
+            }
+            return start == end ? null : new BigDecimal(chars, start, end - start);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+        private static boolean isXmlWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+        }
+
+        private void append(char[] source, int start, int count) {
+            if (length + count > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(2 * chars.length, length + count));
+            }
+            System.arraycopy(source, start, chars, length, count);
+            length += count;
+        }
+    }
+}
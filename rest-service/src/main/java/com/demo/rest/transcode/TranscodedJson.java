@@ -0,0 +1,21 @@
+package com.demo.rest.transcode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A JSON response body written by a transcoder as it reads its source.
+ *
+ * Returned as a ResponseEntity body; TranscodedJsonHttpMessageConverter
+ * writes it straight into the servlet output stream.
+ */
+@FunctionalInterface
+public interface TranscodedJson {
+
+    /**
+     * Write the JSON document, consuming and closing the source.
+     *
+     * @param json The response output stream; left open
+     */
+    void writeTo(OutputStream json) throws IOException;
+}
@@ -0,0 +1,44 @@
+package com.demo.rest.transcode;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes TranscodedJson response bodies as application/json.
+ *
+ * Registered ahead of the Jackson converter by Spring Boot, like any
+ * HttpMessageConverter bean. Write-only.
+ */
+@Component
+public class TranscodedJsonHttpMessageConverter extends AbstractHttpMessageConverter<TranscodedJson> {
+
+    public TranscodedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TranscodedJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TranscodedJson readInternal(Class<? extends TranscodedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("TranscodedJson is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TranscodedJson json, HttpOutputMessage outputMessage) throws IOException {
+        json.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,140 @@
+package com.demo.rest.transcode;
+
+import com.demo.rest.generated.GetOrderResponse;
+import com.demo.rest.mapper.AddressMapperImpl;
+import com.demo.rest.mapper.CustomerMapperImpl;
+import com.demo.rest.mapper.OrderItemMapperImpl;
+import com.demo.rest.mapper.OrderMapper;
+import com.demo.rest.mapper.OrderMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.ws.WebServiceException;
+import jakarta.xml.ws.soap.SOAPFaultException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.context.annotation.Import;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Golden tests for GetOrderJsonTranscoder: for each SOAP response fixture
+ * the transcoded JSON must be byte-identical to the DTO path's,
+ * JAXB unmarshal -> OrderMapper -> application ObjectMapper.
+ *
+ * The transcoder hard-codes the GetOrderResponseDto fields and their
+ * order, so a DTO, mapper or XSD change that is not carried over to it
+ * fails here.
+ */
+@JsonTest
+@Import({GetOrderJsonTranscoder.class, OrderMapperImpl.class, CustomerMapperImpl.class,
+        AddressMapperImpl.class, OrderItemMapperImpl.class})
+class GetOrderJsonTranscoderTest {
+
+    private static final String SOAP_ENV = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    @Autowired
+    private GetOrderJsonTranscoder transcoder;
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Fixtures:
+     * - text: pretty-printed XML, CDATA, entities, non-ASCII text and an
+     *   XML-escaped order ID
+     * - date-times: offsets, nanosecond fractions and padded values
+     * - lexical: '+' and exponent decimals, an untrimmed enum and unknown
+     *   elements
+     * - minimal: absent optional elements and an empty item list
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"text.xml", "date-times.xml", "lexical.xml", "minimal.xml"})
+    void transcodesLikeDtoPath(String fixture) throws Exception {
+        byte[] soapResponse = fixture(fixture);
+
+        assertEquals(viaDto(soapResponse), transcode(soapResponse));
+    }
+
+    @Test
+    void transcodesLargeOrderLikeDtoPath() throws Exception {
+        StringBuilder xml = new StringBuilder("<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"" + SOAP_ENV + "\"><SOAP-ENV:Body>"
+                + "<GetOrderResponse xmlns=\"http://demo.com/soap/order\"><orderId>ORD-LARGE</orderId>"
+                + "<customer><customerId>C1</customerId><firstName>A</firstName><lastName>B</lastName>"
+                + "<email>a@b.c</email><shippingAddress><street>S</street><city>C</city><state>ST</state>"
+                + "<zipCode>Z</zipCode><country>US</country></shippingAddress></customer>");
+        for (int i = 0; i < 5000; i++) {
+            xml.append("<items><productId>PROD-").append(i)
+                    .append("</productId><productName>Product &amp; accessories #").append(i)
+                    .append("</productName><quantity>").append(i % 7 + 1)
+                    .append("</quantity><unitPrice>").append(i).append(".99</unitPrice><totalPrice>")
+                    .append(i).append(".99</totalPrice></items>");
+        }
+        xml.append("<status>PROCESSING</status><totalAmount>12497500.00</totalAmount>"
+                + "<createdAt>2024-01-01T00:00:00</createdAt></GetOrderResponse></SOAP-ENV:Body></SOAP-ENV:Envelope>");
+        byte[] soapResponse = xml.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(viaDto(soapResponse), transcode(soapResponse));
+    }
+
+    @Test
+    void raisesSoapFaults() throws Exception {
+        byte[] soapResponse = fixture("fault.xml");
+
+        SOAPFaultException e = assertThrows(SOAPFaultException.class, () -> transcode(soapResponse));
+        assertEquals("Order not found: ORD-404", e.getFault().getFaultString());
+        assertEquals("Client", e.getFault().getFaultCodeAsQName().getLocalPart());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"html.xml", "not-xml.txt"})
+    void rejectsResponsesThatAreNotSoap(String fixture) throws Exception {
+        byte[] soapResponse = fixture(fixture);
+
+        assertThrows(WebServiceException.class, () -> transcode(soapResponse));
+    }
+
+    private String transcode(byte[] soapResponse) throws Exception {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        transcoder.transcode(new ByteArrayInputStream(soapResponse)).writeTo(json);
+        return json.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The JSON GetOrder writes when the order goes through the DTO.
+     */
+    private String viaDto(byte[] soapResponse) throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newFactory()
+                .createXMLStreamReader(new ByteArrayInputStream(soapResponse));
+        while (!(reader.next() == XMLStreamConstants.START_ELEMENT
+                && SOAP_ENV.equals(reader.getNamespaceURI()) && "Body".equals(reader.getLocalName()))) {
+            // Skip to the SOAP Body
+        }
+        reader.nextTag();
+        GetOrderResponse order = JAXBContext.newInstance(GetOrderResponse.class).createUnmarshaller()
+                .unmarshal(reader, GetOrderResponse.class).getValue();
+        // As bytes, like the HTTP message converter writes it
+        return new String(objectMapper.writeValueAsBytes(orderMapper.toGetOrderResponseDto(order)),
+                StandardCharsets.UTF_8);
+    }
+
+    private static byte[] fixture(String name) throws Exception {
+        try (InputStream in = GetOrderJsonTranscoderTest.class.getResourceAsStream("/transcode/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.demo.rest.transcode;
+
+import com.demo.rest.generated.GetOrderResponse;
+import com.demo.rest.mapper.AddressMapperImpl;
+import com.demo.rest.mapper.CustomerMapperImpl;
+import com.demo.rest.mapper.OrderItemMapperImpl;
+import com.demo.rest.mapper.OrderMapper;
+import com.demo.rest.mapper.OrderMapperImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GetOrder response handling, SOAP bytes in and JSON bytes out:
+ * - dtoPath: JAXB unmarshal -> OrderMapper -> application ObjectMapper,
+ *   what GetOrder does with orders.transcode.enabled=false
+ * - transcoder: GetOrderJsonTranscoder
+ *
+ * Orders of about 1.6 KB (small) and 1.2 MB (large, 5000 items). The JSON
+ * goes to a null stream, so only the work of each path is measured.
+ *
+ * Run with mvn -pl rest-service -Pbench test; the default jmh.args add
+ * -prof gc for the bytes allocated per request (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GetOrderTranscodeBenchmark {
+
+    private static final String SOAP_ENV = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    @Param({"small", "large"})
+    private String order;
+
+    private byte[] soapResponse;
+    private AnnotationConfigApplicationContext mappers;
+    private OrderMapper orderMapper;
+    private ObjectMapper objectMapper;
+    private JAXBContext jaxbContext;
+    private XMLInputFactory xmlInputFactory;
+    private GetOrderJsonTranscoder transcoder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JAXBException {
+        soapResponse = soapResponse("large".equals(order) ? 5000 : 2);
+        mappers = new AnnotationConfigApplicationContext(OrderMapperImpl.class, CustomerMapperImpl.class,
+                AddressMapperImpl.class, OrderItemMapperImpl.class);
+        orderMapper = mappers.getBean(OrderMapper.class);
+        // What Spring Boot's JacksonAutoConfiguration builds with no spring.jackson settings
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+        jaxbContext = JAXBContext.newInstance(GetOrderResponse.class);
+        xmlInputFactory = XMLInputFactory.newFactory();
+        transcoder = new GetOrderJsonTranscoder(objectMapper);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mappers.close();
+    }
+
+    @Benchmark
+    public OutputStream dtoPath() throws XMLStreamException, JAXBException, IOException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(soapResponse));
+        while (!(reader.next() == XMLStreamConstants.START_ELEMENT
+                && SOAP_ENV.equals(reader.getNamespaceURI()) && "Body".equals(reader.getLocalName()))) {
+            // Skip to the SOAP Body
+        }
+        reader.nextTag();
+        GetOrderResponse response = jaxbContext.createUnmarshaller()
+                .unmarshal(reader, GetOrderResponse.class).getValue();
+        OutputStream json = OutputStream.nullOutputStream();
+        objectMapper.writeValue(json, orderMapper.toGetOrderResponseDto(response));
+        return json;
+    }
+
+    @Benchmark
+    public OutputStream transcoder() throws IOException {
+        OutputStream json = OutputStream.nullOutputStream();
+        transcoder.transcode(new ByteArrayInputStream(soapResponse)).writeTo(json);
+        return json;
+    }
+
+    private static byte[] soapResponse(int items) {
+        StringBuilder xml = new StringBuilder("<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"" + SOAP_ENV + "\">"
+                + "<SOAP-ENV:Header/><SOAP-ENV:Body>"
+                + "<ns2:GetOrderResponse xmlns:ns2=\"http://demo.com/soap/order\">"
+                + "<ns2:orderId>ORD-A1B2C3D4-E5F6-4A7B-8C9D-0E1F2A3B4C5D</ns2:orderId>"
+                + "<ns2:customer><ns2:customerId>CUST-001</ns2:customerId><ns2:firstName>John</ns2:firstName>"
+                + "<ns2:lastName>Doe</ns2:lastName><ns2:email>john.doe@example.com</ns2:email>"
+                + "<ns2:phone>+1-555-123-4567</ns2:phone>"
+                + "<ns2:shippingAddress><ns2:street>123 Main Street</ns2:street><ns2:city>Springfield</ns2:city>"
+                + "<ns2:state>IL</ns2:state><ns2:zipCode>62701</ns2:zipCode><ns2:country>USA</ns2:country>"
+                + "</ns2:shippingAddress>"
+                + "<ns2:billingAddress><ns2:street>456 Oak Avenue</ns2:street><ns2:city>Springfield</ns2:city>"
+                + "<ns2:state>IL</ns2:state><ns2:zipCode>62702</ns2:zipCode><ns2:country>USA</ns2:country>"
+                + "</ns2:billingAddress></ns2:customer>");
+        for (int i = 0; i < items; i++) {
+            xml.append("<ns2:items><ns2:productId>PROD-").append(100_000 + i)
+                    .append("</ns2:productId><ns2:productName>Wireless Keyboard &amp; Mouse Combo #").append(i)
+                    .append("</ns2:productName><ns2:quantity>").append(i % 7 + 1)
+                    .append("</ns2:quantity><ns2:unitPrice>").append(i % 500).append(".99</ns2:unitPrice>")
+                    .append("<ns2:totalPrice>").append((i % 500) * (i % 7 + 1)).append(".93</ns2:totalPrice>")
+                    .append("</ns2:items>");
+        }
+        xml.append("<ns2:status>PROCESSING</ns2:status><ns2:totalAmount>1234.56</ns2:totalAmount>"
+                + "<ns2:notes>Leave at the front door</ns2:notes>"
+                + "<ns2:createdAt>2024-12-15T10:30:00.123Z</ns2:createdAt>"
+                + "<ns2:updatedAt>2024-12-15T11:45:30.456Z</ns2:updatedAt>"
+                + "</ns2:GetOrderResponse></SOAP-ENV:Body></SOAP-ENV:Envelope>");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package com.demo.singleflight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls into one.
+ *
+ * The first caller for a key starts the call; callers arriving while it is
+ * in flight join it and get the same result or error. Once the call
+ * completes, the next caller starts a new one, so nothing is cached.
+ *
+ * Each caller gets its own copy of the shared future, so one caller
+ * cancelling or completing its future does not affect the others. Results
+ * are shared instances and must not be mutated.
+ *
+ * Blocking calls go through executeBlocking, which runs the call on the
+ * first caller's thread and blocks the others until it completes.
+ *
+ * Metrics: soap.client.single-flight, tagged with the operation and
+ * result=leader (started a call) or joined (shared one).
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter joined;
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("soap.client.single-flight")
+                .tag("operation", operation).tag("result", "leader")
+                .register(meterRegistry);
+        this.joined = Counter.builder("soap.client.single-flight")
+                .tag("operation", operation).tag("result", "joined")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the call for this key, or join the one already in flight.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            joined.increment();
+            return existing.copy();
+        }
+
+        leaders.increment();
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, shared);
+                if (error != null) {
+                    shared.completeExceptionally(unwrap(error));
+                } else {
+                    shared.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    /**
+     * Run a blocking call for this key on this thread, or wait for the one
+     * already in flight. Its exception is rethrown as is to every caller.
+     */
+    public V executeBlocking(K key, Supplier<V> call) {
+        try {
+            return execute(key, () -> CompletableFuture.completedFuture(call.get())).join();
+        } catch (CompletionException e) {
+            Throwable error = unwrap(e);
+            if (error instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (error instanceof Error fatal) {
+                throw fatal;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -1,10 +1,16 @@
 package com.demo.soap.config;
 
+import com.demo.soap.transport.AsyncMessageDispatcherServlet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.ws.config.annotation.EnableWs;
 import org.springframework.ws.config.annotation.WsConfigurerAdapter;
 import org.springframework.ws.transport.http.MessageDispatcherServlet;
@@ -12,6 +18,8 @@ import org.springframework.ws.wsdl.wsdl11.DefaultWsdl11Definition;
 import org.springframework.xml.xsd.SimpleXsdSchema;
 import org.springframework.xml.xsd.XsdSchema;
 
+import java.time.Duration;
+
 /**
  * Configuration for Spring Web Services (SOAP).
  *
@@ -19,6 +27,7 @@ import org.springframework.xml.xsd.XsdSchema;
  * 1. Registers the MessageDispatcherServlet at /ws/*
  * 2. Exposes the WSDL at /ws/orders.wsdl
  * 3. Configures the XSD schema for JAXB binding
+ * 4. Optionally dispatches SOAP messages asynchronously (soap.dispatch.async.enabled)
  */
 @EnableWs
 @Configuration
@@ -26,17 +35,53 @@ public class WebServiceConfig extends WsConfigurerAdapter {
 
     public static final String NAMESPACE_URI = "http://demo.com/soap/order";
 
+    @Value("${soap.dispatch.async.enabled}")
+    private boolean asyncDispatchEnabled;
+
+    @Value("${soap.dispatch.async.timeout}")
+    private Duration asyncDispatchTimeout;
+
     /**
      * Register the MessageDispatcherServlet.
      * This servlet handles all SOAP requests.
+     *
+     * When async dispatch is enabled, the request is suspended and processed
+     * on the soapDispatchExecutor, freeing the Tomcat worker thread.
      */
     @Bean
     public ServletRegistrationBean<MessageDispatcherServlet> messageDispatcherServlet(
-            ApplicationContext applicationContext) {
-        MessageDispatcherServlet servlet = new MessageDispatcherServlet();
+            ApplicationContext applicationContext,
+            ObjectProvider<ThreadPoolTaskExecutor> soapDispatchExecutor,
+            MeterRegistry meterRegistry) {
+        MessageDispatcherServlet servlet = asyncDispatchEnabled
+                ? new AsyncMessageDispatcherServlet(soapDispatchExecutor.getObject(), asyncDispatchTimeout, meterRegistry)
+                : new MessageDispatcherServlet();
         servlet.setApplicationContext(applicationContext);
         servlet.setTransformWsdlLocations(true);
-        return new ServletRegistrationBean<>(servlet, "/ws/*");
+
+        ServletRegistrationBean<MessageDispatcherServlet> registration = new ServletRegistrationBean<>(servlet, "/ws/*");
+        registration.setAsyncSupported(asyncDispatchEnabled);
+        return registration;
+    }
+
+    /**
+     * Dedicated executor for asynchronous SOAP dispatch.
+     * Its pool size bounds how many orders are processed concurrently,
+     * independently of the number of Tomcat worker threads.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "soap.dispatch.async.enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor soapDispatchExecutor(
+            @Value("${soap.dispatch.async.pool-size}") int poolSize,
+            @Value("${soap.dispatch.async.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("soap-dispatch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
     }
 
     /**
@@ -3,14 +3,9 @@ package com.demo.soap.service;
 import com.demo.soap.generated.*;
 import org.springframework.stereotype.Service;
 
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
-import javax.xml.datatype.XMLGregorianCalendar;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.GregorianCalendar;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,8 +33,9 @@ public class OrderProcessingService {
      * @return CreateOrderResponse with order confirmation
      */
     public CreateOrderResponse processCreateOrder(CreateOrderRequest request) {
-        // Generate unique order ID
-        String orderId = "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // Generate unique order ID: the full random UUID, as a truncated one
+        // collides within a few tens of thousands of orders
+        String orderId = "ORD-" + UUID.randomUUID().toString().toUpperCase();
 
         // Calculate total amount from items
         BigDecimal totalAmount = calculateTotalAmount(request);
@@ -53,11 +49,11 @@ public class OrderProcessingService {
         response.setStatus(OrderStatusType.CONFIRMED);
         response.setMessage("Order successfully created and confirmed");
         response.setTotalAmount(totalAmount);
-        response.setCreatedAt(toXMLGregorianCalendar(LocalDateTime.now()));
+        response.setCreatedAt(LocalDateTime.now());
 
         // Set estimated delivery date (5 business days for regular, 2 for priority)
         int daysToAdd = request.isPriority() ? 2 : 5;
-        response.setEstimatedDeliveryDate(toXMLGregorianCalendarDate(LocalDate.now().plusDays(daysToAdd)));
+        response.setEstimatedDeliveryDate(LocalDate.now().plusDays(daysToAdd));
 
         // Store response for GetOrder
         orderResponseStorage.put(orderId, response);
@@ -92,7 +88,7 @@ public class OrderProcessingService {
         response.setTotalAmount(originalResponse.getTotalAmount());
         response.setNotes(originalRequest.getNotes());
         response.setCreatedAt(originalResponse.getCreatedAt());
-        response.setUpdatedAt(toXMLGregorianCalendar(LocalDateTime.now()));
+        response.setUpdatedAt(LocalDateTime.now());
 
         System.out.println("SOAP Service: Retrieved order " + orderId);
 
@@ -108,34 +104,6 @@ public class OrderProcessingService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    /**
-     * Convert LocalDateTime to XMLGregorianCalendar.
-     */
-    private XMLGregorianCalendar toXMLGregorianCalendar(LocalDateTime dateTime) {
-        try {
-            GregorianCalendar gc = GregorianCalendar.from(dateTime.atZone(ZoneId.systemDefault()));
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(gc);
-        } catch (DatatypeConfigurationException e) {
-            throw new RuntimeException("Failed to create XMLGregorianCalendar", e);
-        }
-    }
-
-    /**
-     * Convert LocalDate to XMLGregorianCalendar (date only).
-     */
-    private XMLGregorianCalendar toXMLGregorianCalendarDate(LocalDate date) {
-        try {
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(
-                    date.getYear(),
-                    date.getMonthValue(),
-                    date.getDayOfMonth(),
-                    0, 0, 0, 0, 0
-            );
-        } catch (DatatypeConfigurationException e) {
-            throw new RuntimeException("Failed to create XMLGregorianCalendar", e);
-        }
-    }
-
     /**
      * Custom exception for order not found.
      */
@@ -0,0 +1,269 @@
+package com.demo.soap.transport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MessageDispatcherServlet that processes SOAP messages asynchronously.
+ *
+ * Instead of handling the SOAP message on the Tomcat worker thread, this servlet:
+ * 1. Suspends the request using Servlet async (startAsync)
+ * 2. Dispatches the message on a dedicated executor
+ * 3. Completes the request once the endpoint has written its response
+ *
+ * The container thread is returned to the pool as soon as the request is suspended,
+ * so slow endpoints no longer pin Tomcat workers.
+ * Requests that exceed the timeout, or that cannot be queued on the executor,
+ * are answered with HTTP 503.
+ *
+ * The AsyncContext is never completed while the endpoint may still be using
+ * the request or response: once a worker has started, only that worker
+ * completes it. The timeout is therefore enforced by this servlet rather
+ * than by the container (which completes the request itself after
+ * AsyncListener.onTimeout): a request still queued is answered at once; a
+ * running worker is interrupted and answers 503 itself when it returns,
+ * unless the endpoint has already written its response.
+ *
+ * Only POST requests (SOAP messages) are dispatched asynchronously;
+ * WSDL and XSD GET requests are served on the container thread as before.
+ */
+public class AsyncMessageDispatcherServlet extends MessageDispatcherServlet {
+
+    private static final String METRIC_PREFIX = "soap.dispatch.async";
+
+    private final AsyncTaskExecutor executor;
+    private final Duration timeout;
+    private final ScheduledExecutorService deadlines;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+    private final Counter timeoutCounter;
+    private final Counter rejectedCounter;
+
+    public AsyncMessageDispatcherServlet(AsyncTaskExecutor executor, Duration timeout, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.timeout = timeout;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("soap-dispatch-timeout-");
+        threadFactory.setDaemon(true);
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.completedTimer = Timer.builder(METRIC_PREFIX)
+                .description("SOAP messages dispatched asynchronously")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failedTimer = Timer.builder(METRIC_PREFIX)
+                .description("SOAP messages dispatched asynchronously")
+                .tag("outcome", "error")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder(METRIC_PREFIX + ".timeouts")
+                .description("SOAP messages that exceeded the async dispatch timeout")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("SOAP messages rejected because the dispatch executor was saturated")
+                .register(meterRegistry);
+        meterRegistry.gauge(METRIC_PREFIX + ".in-flight", inFlight);
+    }
+
+    @Override
+    protected void doService(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (!"POST".equals(request.getMethod()) || !request.isAsyncSupported()) {
+            super.doService(request, response);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        // No container timeout: see AsyncDispatch.expire
+        asyncContext.setTimeout(0);
+        AsyncDispatch dispatch = new AsyncDispatch(asyncContext);
+        asyncContext.addListener(dispatch);
+
+        inFlight.incrementAndGet();
+        dispatch.deadline = deadlines.schedule(dispatch::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            dispatch.task = executor.submit(dispatch);
+        } catch (TaskRejectedException ex) {
+            rejectedCounter.increment();
+            logger.warn("Async SOAP dispatch rejected, executor is saturated");
+            dispatch.cancelDeadline();
+            dispatch.failUnstarted();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        deadlines.shutdownNow();
+        super.destroy();
+    }
+
+    /**
+     * A single suspended SOAP request.
+     *
+     * The started flag decides who owns the response: the worker, if it gets
+     * to run, or otherwise the timeout or rejection path. Only the owner
+     * writes to the response and completes the AsyncContext.
+     */
+    private class AsyncDispatch implements Runnable, AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final long startNanos = System.nanoTime();
+        private volatile Future<?> task;
+        private volatile ScheduledFuture<?> deadline;
+        private volatile boolean timedOut;
+        private volatile boolean aborted;
+
+        AsyncDispatch(AsyncContext asyncContext) {
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                // Timed out or aborted while queued: already answered
+                return;
+            }
+            Timer outcome = completedTimer;
+            try {
+                AsyncMessageDispatcherServlet.super.doService(
+                        (HttpServletRequest) asyncContext.getRequest(),
+                        (HttpServletResponse) asyncContext.getResponse());
+            } catch (Exception ex) {
+                outcome = failedTimer;
+                if (!timedOut && !aborted) {
+                    logger.error("Async SOAP dispatch failed", ex);
+                    sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            } finally {
+                cancelDeadline();
+                // Clear an interrupt from expire before writing the response
+                Thread.interrupted();
+                if (timedOut) {
+                    outcome = failedTimer;
+                    sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                }
+                finish(outcome);
+            }
+        }
+
+        /**
+         * The dispatch timeout elapsed. Runs on the deadline thread.
+         */
+        void expire() {
+            timeoutCounter.increment();
+            logger.warn("Async SOAP dispatch timed out after " + timeout.toMillis() + " ms");
+            if (started.compareAndSet(false, true)) {
+                cancelQueued();
+                sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                finish(failedTimer);
+                return;
+            }
+            // The worker answers 503 and completes when it returns
+            timedOut = true;
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+
+        /**
+         * Answer 503 for a request whose worker was never started.
+         */
+        void failUnstarted() {
+            if (started.compareAndSet(false, true)) {
+                sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                finish(failedTimer);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Not used: the container timeout is disabled
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // The container completes the request after this returns; a
+            // running worker is interrupted and no longer completes it
+            logger.warn("Async SOAP dispatch aborted by the container", event.getThrowable());
+            aborted = true;
+            cancelDeadline();
+            if (started.compareAndSet(false, true)) {
+                cancelQueued();
+                finish(failedTimer);
+                return;
+            }
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void cancelDeadline() {
+            ScheduledFuture<?> pending = deadline;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+
+        private void cancelQueued() {
+            Future<?> queued = task;
+            if (queued != null) {
+                queued.cancel(false);
+            }
+        }
+
+        private void finish(Timer outcome) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.decrementAndGet();
+            outcome.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (!aborted) {
+                asyncContext.complete();
+            }
+        }
+
+        private void sendError(int status) {
+            if (aborted) {
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            if (!response.isCommitted()) {
+                try {
+                    response.sendError(status);
+                } catch (IOException ex) {
+                    logger.debug("Could not send error status " + status, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.demo.soap.transport;
+
+import com.demo.soap.SoapServiceApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.xml.transform.StringSource;
+
+import javax.xml.transform.Source;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for AsyncMessageDispatcherServlet against a slow test endpoint,
+ * with the service started on a random port and a Tomcat pool of 4 threads.
+ *
+ * Checks that:
+ * - async dispatch keeps more requests in flight than the Tomcat pool,
+ *   while sync dispatch is bounded by it
+ * - the dispatch timeout answers 503 at once only for a request whose
+ *   worker has not started; a running worker is interrupted but keeps the
+ *   response until it returns
+ */
+class AsyncMessageDispatcherServletTest {
+
+    private static final int TOMCAT_THREADS = 4;
+    private static final int REQUESTS = 32;
+    private static final String NAMESPACE = "urn:demo:test";
+
+    // Shared with the test endpoint
+    private static final AtomicInteger entered = new AtomicInteger();
+    private static final AtomicBoolean interrupted = new AtomicBoolean();
+    private static volatile CountDownLatch release;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private ServletWebServerApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        entered.set(0);
+        interrupted.set(false);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void syncDispatchIsBoundedByTheTomcatPool() throws Exception {
+        start("--soap.dispatch.async.enabled=false");
+
+        assertEquals(TOMCAT_THREADS, inFlight(REQUESTS));
+    }
+
+    @Test
+    void asyncDispatchKeepsMoreRequestsInFlightThanTheTomcatPool() throws Exception {
+        start("--soap.dispatch.async.enabled=true", "--soap.dispatch.async.pool-size=64");
+
+        assertEquals(REQUESTS, inFlight(REQUESTS));
+    }
+
+    @Test
+    void deadlineAnswersOnlyRequestsWhoseWorkerHasNotStarted() throws Exception {
+        start("--soap.dispatch.async.enabled=true", "--soap.dispatch.async.pool-size=1",
+                "--soap.dispatch.async.timeout=500ms");
+
+        // Takes the only worker and ignores the interrupt at its deadline
+        CompletableFuture<HttpResponse<String>> running = send("Stuck");
+        awaitEntered(1);
+        // Queued behind it
+        CompletableFuture<HttpResponse<String>> queued = send("Slow");
+
+        assertEquals(503, queued.get(5, TimeUnit.SECONDS).statusCode());
+        assertEquals(1, entered.get(), "The queued request never reached the endpoint");
+
+        // Past its deadline too, but its worker still owns the response
+        Thread.sleep(500);
+        assertTrue(interrupted.get(), "The running worker is interrupted at its deadline");
+        assertFalse(running.isDone(), "A running worker's request is not answered before the worker returns");
+
+        // The endpoint wrote its response, which stands
+        release.countDown();
+        assertEquals(200, running.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    /**
+     * Send requests to the slow endpoint and count how many reach it
+     * before any is let through.
+     */
+    private int inFlight(int requests) throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(send("Slow"));
+        }
+        awaitEntered(requests);
+        // Let stragglers arrive, if the dispatch allows them
+        Thread.sleep(200);
+        int inFlight = entered.get();
+
+        release.countDown();
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get(10, TimeUnit.SECONDS).statusCode());
+        }
+        return inFlight;
+    }
+
+    private static void awaitEntered(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (entered.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void start(String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS, "--server.tomcat.threads.min-spare=" + TOMCAT_THREADS,
+                "--logging.level.org.springframework.ws=INFO", "--logging.level.com.demo.soap=INFO"));
+        arguments.addAll(List.of(args));
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(
+                SoapServiceApplication.class, SlowEndpoint.class).run(arguments.toArray(String[]::new));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String operation) {
+        String envelope = "<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+                + "<SOAP-ENV:Body><t:" + operation + " xmlns:t=\"" + NAMESPACE + "\"/></SOAP-ENV:Body>"
+                + "</SOAP-ENV:Envelope>";
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + context.getWebServer().getPort() + "/ws"))
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .header("SOAPAction", "\"\"")
+                .POST(HttpRequest.BodyPublishers.ofString(envelope))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Holds each request until the test releases it.
+     */
+    @Endpoint
+    static class SlowEndpoint {
+
+        @PayloadRoot(namespace = NAMESPACE, localPart = "Slow")
+        @ResponsePayload
+        public Source slow(@RequestPayload Source request) throws InterruptedException {
+            entered.incrementAndGet();
+            release.await();
+            return new StringSource("<t:SlowResponse xmlns:t=\"" + NAMESPACE + "\"/>");
+        }
+
+        /**
+         * Like slow, but keeps waiting when interrupted.
+         */
+        @PayloadRoot(namespace = NAMESPACE, localPart = "Stuck")
+        @ResponsePayload
+        public Source stuck(@RequestPayload Source request) {
+            entered.incrementAndGet();
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }
+            return new StringSource("<t:StuckResponse xmlns:t=\"" + NAMESPACE + "\"/>");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.demo.stress;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running rest-service.
+ *
+ * For each concurrency level, that many clients repeatedly create an order
+ * (POST /api/v1/orders) and read it back (GET /api/v1/orders/{orderId}),
+ * each waiting for its response before sending the next request. Comparing
+ * latency across levels shows how far concurrency scales: with the async
+ * controllers, levels well beyond server.tomcat.threads.max should keep
+ * flat latency until the SOAP client executor or the backend saturates.
+ *
+ * Any non-2xx response counts as a violation.
+ */
+class HttpLoadScenario {
+
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final StressHarness.Options options;
+
+    HttpLoadScenario(StressHarness.Options options) {
+        this.options = options;
+    }
+
+    List<StressReport> run() throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<StressReport> reports = new ArrayList<>();
+        for (int concurrency : options.concurrency()) {
+            reports.add(runLevel(client, concurrency));
+        }
+        return reports;
+    }
+
+    private StressReport runLevel(HttpClient client, int concurrency) throws InterruptedException {
+        StressReport report = new StressReport("HTTP " + options.url() + ", " + concurrency + " clients");
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.seconds());
+        for (int c = 0; c < concurrency; c++) {
+            int clientId = c;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; System.nanoTime() < deadline; n++) {
+                        String orderId = create(client, report, "LOAD-" + clientId + "-" + n);
+                        if (orderId != null) {
+                            get(client, report, orderId);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException | RuntimeException e) {
+                    report.violation("Client " + clientId + " failed: " + e);
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        clients.awaitTermination(options.seconds() + 60L, TimeUnit.SECONDS);
+        report.elapsed(System.nanoTime() - started);
+        return report;
+    }
+
+    private String create(HttpClient client, StressReport report, String customerId)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.url() + "/api/v1/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(orderJson(customerId)))
+                .build();
+        HttpResponse<String> response = send(client, report, "POST /orders", request);
+        if (response == null) {
+            return null;
+        }
+        Matcher matcher = ORDER_ID.matcher(response.body());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private void get(HttpClient client, StressReport report, String orderId)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.url() + "/api/v1/orders/" + orderId))
+                .GET()
+                .build();
+        send(client, report, "GET /orders/{id}", request);
+    }
+
+    /**
+     * Send a request, recording its latency. Returns null for non-2xx responses.
+     */
+    private static HttpResponse<String> send(HttpClient client, StressReport report, String operation,
+                                             HttpRequest request) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - started;
+        if (response.statusCode() / 100 != 2) {
+            report.count(operation + " " + response.statusCode(), latency);
+            report.violation(operation + " returned " + response.statusCode());
+            return null;
+        }
+        report.count(operation, latency);
+        return response;
+    }
+
+    private static String orderJson(String customerId) {
+        return """
+                {"customer":{"customerId":"%s","firstName":"Load","lastName":"Tester",\
+                "email":"load@example.com","shippingAddress":{"street":"1 Load Street","city":"Loadtown",\
+                "state":"LT","zipCode":"00000","country":"US"}},\
+                "items":[{"productId":"PROD-001","productName":"Wireless Headphones","quantity":2,"unitPrice":49.99},\
+                {"productId":"PROD-002","productName":"Phone Case","quantity":1,"unitPrice":19.99}],\
+                "priority":false}""".formatted(customerId);
+    }
+}
@@ -0,0 +1,285 @@
+package com.demo.stress;
+
+import com.demo.inventory.service.InventoryService;
+import com.demo.inventory.service.StockTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hammers InventoryService with randomized reserve / commit / release /
+ * check operations.
+ *
+ * Stock is deliberately scarce (0-50 units per SKU) and a handful of
+ * flash-sale SKUs with 5 units each attract a third of all requests, so
+ * reservations regularly race for the last units. Some reservations get a
+ * 1 s TTL and expire under the workers' feet.
+ *
+ * Invariants:
+ * 1. During the run, every checked SKU has 0 <= reserved <= available
+ * 2. A reservation is closed (committed, released or expired) at most once
+ * 3. After every reservation is closed, each SKU has nothing reserved and
+ *    exactly its initial stock minus the committed units on hand
+ */
+class InventoryStressScenario {
+
+    private static final int WAREHOUSES = 8;
+    private static final int FLASH_SKUS = 5;
+    private static final int RECENT_RESERVATIONS = 4096;
+
+    private final StressHarness.Options options;
+    private final StressReport report = new StressReport("InventoryService");
+
+    // Per SKU, as tracked from the service's answers
+    private final int[] initialStock;
+    private final AtomicLongArray committed;
+    private final Map<String, Held> open = new ConcurrentHashMap<>();
+    // Reservation IDs recently created, for any worker to close
+    private final AtomicReferenceArray<String> recent = new AtomicReferenceArray<>(RECENT_RESERVATIONS);
+
+    InventoryStressScenario(StressHarness.Options options) {
+        this.options = options;
+        this.initialStock = new int[options.skus()];
+        this.committed = new AtomicLongArray(options.skus());
+    }
+
+    StressReport run() throws Exception {
+        Path journal = options.journal() ? Files.createTempDirectory("inventory-stress") : null;
+        InventoryService service = new InventoryService(new SimpleMeterRegistry(), Duration.ofHours(1),
+                Duration.ofMillis(100), 4096, journal != null, journal != null ? journal.toString() : "",
+                256, Duration.ofMinutes(5), 50, Duration.ofMillis(100), 65536);
+        try {
+            service.replaceCatalog(catalog(), 1);
+            runWorkers(service);
+            closeAll(service);
+            verifyFinalStock(service);
+        } finally {
+            service.shutdown();
+            if (journal != null) {
+                deleteRecursively(journal);
+            }
+        }
+        return report;
+    }
+
+    private Map<String, StockTable> catalog() {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        StockTable.Builder builder = StockTable.builder(options.skus());
+        for (int sku = 0; sku < options.skus(); sku++) {
+            initialStock[sku] = sku < FLASH_SKUS ? 5 : random.nextInt(51);
+            builder.add(productId(sku), "Stress product " + sku, "WH-S" + (sku % WAREHOUSES),
+                    BigDecimal.valueOf(100 + sku, 2), initialStock[sku]);
+        }
+        return builder.buildPartitions();
+    }
+
+    private void runWorkers(InventoryService service) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.seconds());
+        for (int t = 0; t < options.threads(); t++) {
+            SplittableRandom random = new SplittableRandom(options.seed() * 31 + t);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        step(service, random);
+                        jitter(random);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    report.violation("Unexpected exception: " + e);
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        workers.shutdown();
+        workers.awaitTermination(options.seconds() + 60L, TimeUnit.SECONDS);
+        report.elapsed(System.nanoTime() - started);
+    }
+
+    private void step(InventoryService service, SplittableRandom random) {
+        int dice = random.nextInt(100);
+        if (dice < 50) {
+            reserve(service, random);
+        } else if (dice < 70) {
+            close(service, random, true);
+        } else if (dice < 90) {
+            close(service, random, false);
+        } else {
+            check(service, random);
+        }
+    }
+
+    private void reserve(InventoryService service, SplittableRandom random) {
+        int lines = 1 + random.nextInt(4);
+        List<InventoryService.ReservationRequest> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            int sku = random.nextInt(3) == 0 ? random.nextInt(FLASH_SKUS) : random.nextInt(options.skus());
+            items.add(new InventoryService.ReservationRequest(productId(sku), 1 + random.nextInt(5)));
+        }
+        boolean atomic = random.nextInt(10) < 3;
+        Duration ttl = random.nextInt(10) == 0 ? Duration.ofSeconds(1) : null;
+
+        InventoryService.ReservationResult result = service.reserveInventory("STRESS", items, atomic, ttl);
+        report.count(atomic ? "reserve.atomic" : "reserve.partial");
+
+        String[] productIds = new String[lines];
+        int[] quantities = new int[lines];
+        int reserved = 0;
+        for (int i = 0; i < lines; i++) {
+            InventoryService.ItemReservationResult line = result.results().get(i);
+            if (line.reservedQuantity() < 0 || line.reservedQuantity() > line.requestedQuantity()) {
+                report.violation("Line reserved " + line.reservedQuantity() + " of " + line.requestedQuantity());
+            }
+            productIds[i] = line.productId();
+            quantities[i] = line.reservedQuantity();
+            reserved += line.reservedQuantity();
+        }
+        int requested = items.stream().mapToInt(InventoryService.ReservationRequest::quantity).sum();
+        if (atomic && reserved != (result.allReserved() ? requested : 0)) {
+            report.violation("Atomic reservation " + result.reservationId() + " reserved " + reserved
+                    + " of " + requested + " units");
+        }
+        if (reserved > 0) {
+            open.put(result.reservationId(), new Held(productIds, quantities));
+            recent.set(random.nextInt(RECENT_RESERVATIONS), result.reservationId());
+        }
+    }
+
+    private void close(InventoryService service, SplittableRandom random, boolean commit) {
+        String reservationId = recent.get(random.nextInt(RECENT_RESERVATIONS));
+        if (reservationId == null) {
+            return;
+        }
+        List<InventoryService.ReservationOperationResult> results = commit
+                ? service.commitReservations(List.of(reservationId))
+                : service.releaseReservations(List.of(reservationId));
+        report.count(commit ? "commit" : "release");
+        account(results.get(0));
+    }
+
+    private void check(InventoryService service, SplittableRandom random) {
+        List<String> productIds = new ArrayList<>(20);
+        for (int i = 0; i < 20; i++) {
+            productIds.add(productId(random.nextInt(options.skus())));
+        }
+        for (InventoryService.InventoryItem item : service.checkInventory(productIds)) {
+            if (item.reservedQuantity() < 0 || item.reservedQuantity() > item.availableQuantity()) {
+                report.violation(item.productId() + " has " + item.reservedQuantity() + " reserved of "
+                        + item.availableQuantity() + " available");
+            }
+        }
+        report.count("check");
+    }
+
+    /**
+     * Apply a close to the expected stock. Exactly one close per reservation
+     * may succeed, and the worker whose close succeeded accounts for it.
+     * EXPIRED means the wheel released it first; the worker that sees that
+     * accounts for it instead. Closes that lost the race ("already ..." or
+     * NOT_FOUND once the winner removed it) leave the accounting alone.
+     */
+    private void account(InventoryService.ReservationOperationResult result) {
+        String status = result.status();
+        boolean closedHere = (status.equals("COMMITTED") || status.equals("RELEASED"))
+                && !result.message().startsWith("Reservation already");
+        if (!closedHere && !status.equals("EXPIRED")) {
+            return;
+        }
+        Held held = open.remove(result.reservationId());
+        if (held == null) {
+            if (closedHere) {
+                report.violation("Reservation " + result.reservationId() + " closed twice");
+            }
+            return;
+        }
+        if (status.equals("COMMITTED")) {
+            for (int i = 0; i < held.productIds.length; i++) {
+                committed.addAndGet(sku(held.productIds[i]), held.quantities[i]);
+            }
+        }
+    }
+
+    /**
+     * Release everything still open, after letting short-TTL reservations expire.
+     */
+    private void closeAll(InventoryService service) throws InterruptedException {
+        Thread.sleep(1500);
+        List<String> remaining = new ArrayList<>(open.keySet());
+        List<InventoryService.ReservationOperationResult> results = service.releaseReservations(remaining);
+        for (InventoryService.ReservationOperationResult result : results) {
+            if (result.status().equals("NOT_FOUND")) {
+                // Expired: gone from the index, its stock returned by the wheel
+                open.remove(result.reservationId());
+            } else {
+                account(result);
+            }
+        }
+    }
+
+    private void verifyFinalStock(InventoryService service) {
+        List<String> productIds = new ArrayList<>(options.skus());
+        for (int sku = 0; sku < options.skus(); sku++) {
+            productIds.add(productId(sku));
+        }
+        List<InventoryService.InventoryItem> items = service.checkInventory(productIds);
+        for (int sku = 0; sku < items.size(); sku++) {
+            InventoryService.InventoryItem item = items.get(sku);
+            long expected = initialStock[sku] - committed.get(sku);
+            if (item.reservedQuantity() != 0 || item.availableQuantity() != expected) {
+                report.violation(productId(sku) + " ends with " + item.availableQuantity() + " available / "
+                        + item.reservedQuantity() + " reserved, expected " + expected + " / 0");
+            }
+        }
+    }
+
+    /**
+     * Vary interleavings: sometimes yield, sometimes spin briefly.
+     */
+    private static void jitter(SplittableRandom random) {
+        int dice = random.nextInt(16);
+        if (dice == 0) {
+            Thread.yield();
+        } else if (dice == 1) {
+            for (int i = random.nextInt(200); i > 0; i--) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static String productId(int sku) {
+        return String.format("STRESS-%06d", sku);
+    }
+
+    private static int sku(String productId) {
+        return Integer.parseInt(productId.substring("STRESS-".length()));
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private record Held(String[] productIds, int[] quantities) {}
+}
@@ -0,0 +1,145 @@
+package com.demo.stress;
+
+import com.demo.soap.generated.AddressType;
+import com.demo.soap.generated.CreateOrderRequest;
+import com.demo.soap.generated.CreateOrderResponse;
+import com.demo.soap.generated.CustomerType;
+import com.demo.soap.generated.GetOrderRequest;
+import com.demo.soap.generated.GetOrderResponse;
+import com.demo.soap.generated.OrderItemType;
+import com.demo.soap.service.OrderProcessingService;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hammers OrderProcessingService.processCreateOrder from many threads,
+ * interleaved with reads of orders created by other threads.
+ *
+ * Invariants:
+ * 1. Every create returns an order ID no other create returned
+ * 2. After the run, every created order reads back with its own customer
+ *    and total, i.e. no order was lost or overwritten by another
+ */
+class OrderStressScenario {
+
+    private final StressHarness.Options options;
+    private final StressReport report = new StressReport("OrderProcessingService");
+
+    // Order ID -> customer ID the create was made for
+    private final Map<String, String> created = new ConcurrentHashMap<>();
+    private final AtomicInteger budget;
+    // Order IDs recently created, for any worker to read back
+    private final AtomicReferenceArray<String> recent = new AtomicReferenceArray<>(1024);
+
+    OrderStressScenario(StressHarness.Options options) {
+        this.options = options;
+        this.budget = new AtomicInteger(options.maxOrders());
+    }
+
+    StressReport run() throws InterruptedException {
+        OrderProcessingService service = new OrderProcessingService();
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.seconds());
+        for (int t = 0; t < options.threads(); t++) {
+            int worker = t;
+            SplittableRandom random = new SplittableRandom(options.seed() * 17 + t);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; System.nanoTime() < deadline && budget.getAndDecrement() > 0; n++) {
+                        create(service, worker + "-" + n, random);
+                        if (random.nextInt(4) == 0) {
+                            readBack(service, recent.get(random.nextInt(recent.length())));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    report.violation("Unexpected exception: " + e);
+                }
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        workers.shutdown();
+        workers.awaitTermination(options.seconds() + 60L, TimeUnit.SECONDS);
+        report.elapsed(System.nanoTime() - started);
+
+        created.forEach((orderId, customerId) -> verify(service, orderId, customerId));
+        return report;
+    }
+
+    private void create(OrderProcessingService service, String customerId, SplittableRandom random) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setCustomer(customer(customerId));
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            OrderItemType item = new OrderItemType();
+            item.setProductId("PROD-00" + (1 + random.nextInt(5)));
+            item.setProductName("Stress product");
+            item.setQuantity(1 + random.nextInt(3));
+            item.setUnitPrice(BigDecimal.valueOf(999, 2));
+            item.setTotalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            request.getItems().add(item);
+        }
+        request.setPriority(random.nextBoolean());
+
+        CreateOrderResponse response = service.processCreateOrder(request);
+        report.count("create");
+        if (created.putIfAbsent(response.getOrderId(), customerId) != null) {
+            report.violation("Order ID " + response.getOrderId() + " returned by two creates");
+        }
+        recent.set(random.nextInt(recent.length()), response.getOrderId());
+    }
+
+    private void readBack(OrderProcessingService service, String orderId) {
+        if (orderId == null) {
+            return;
+        }
+        GetOrderRequest request = new GetOrderRequest();
+        request.setOrderId(orderId);
+        service.processGetOrder(request);
+        report.count("get");
+    }
+
+    private void verify(OrderProcessingService service, String orderId, String customerId) {
+        GetOrderRequest request = new GetOrderRequest();
+        request.setOrderId(orderId);
+        try {
+            GetOrderResponse response = service.processGetOrder(request);
+            if (!customerId.equals(response.getCustomer().getCustomerId())) {
+                report.violation("Order " + orderId + " was overwritten by customer "
+                        + response.getCustomer().getCustomerId());
+            }
+        } catch (OrderProcessingService.OrderNotFoundException e) {
+            report.violation("Order " + orderId + " was lost");
+        }
+    }
+
+    private static CustomerType customer(String customerId) {
+        AddressType address = new AddressType();
+        address.setStreet("1 Stress Street");
+        address.setCity("Loadtown");
+        address.setState("LT");
+        address.setZipCode("00000");
+        address.setCountry("US");
+
+        CustomerType customer = new CustomerType();
+        customer.setCustomerId(customerId);
+        customer.setFirstName("Stress");
+        customer.setLastName("Tester");
+        customer.setEmail("stress@example.com");
+        customer.setShippingAddress(address);
+        return customer;
+    }
+}
@@ -0,0 +1,113 @@
+package com.demo.stress;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Concurrency stress harness for InventoryService and OrderProcessingService.
+ *
+ * Runs the services in-process, hammers them from many threads with
+ * randomized operations, and checks invariants during and after the run:
+ * - inventory: reserved never exceeds available, no reservation closes
+ *   twice, and once every reservation is closed the stock adds up to the
+ *   initial stock minus what was committed
+ * - orders: every create returns a unique order ID, and every created
+ *   order can be read back unchanged
+ *
+ * The http scenario instead drives a running rest-service over HTTP at one
+ * or more concurrency levels, reporting latency percentiles per level.
+ *
+ * Each run prints throughput per operation, so it doubles as a scalability
+ * regression check. The exit code is 1 if any invariant was violated.
+ *
+ * The in-process scenarios also run in every build, as short runs in
+ * StressScenariosTest, so a violation fails mvn verify.
+ *
+ * Usage: StressHarness [inventory|orders|all] [--threads=64] [--seconds=10]
+ *        [--skus=1000] [--orders=200000] [--seed=N] [--journal]
+ *        StressHarness http [--url=http://localhost:8082] [--concurrency=50,200,800]
+ *        [--seconds=10]
+ */
+public final class StressHarness {
+
+    private StressHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        PrintStream out = System.out;
+        if (options.scenario.equals("http")) {
+            out.printf("Load run: %s, %s clients, %d s per level%n", options.url, options.concurrency, options.seconds);
+        } else {
+            out.printf("Stress run: %s, %d threads, %d s, %d SKUs, seed %d%s%n", options.scenario, options.threads,
+                    options.seconds, options.skus, options.seed, options.journal ? ", journal on" : "");
+        }
+
+        // The services log every operation to stdout; keep the report readable
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<StressReport> reports = new ArrayList<>();
+        try {
+            if (options.scenario.equals("inventory") || options.scenario.equals("all")) {
+                reports.add(new InventoryStressScenario(options).run());
+            }
+            if (options.scenario.equals("orders") || options.scenario.equals("all")) {
+                reports.add(new OrderStressScenario(options).run());
+            }
+            if (options.scenario.equals("http")) {
+                reports.addAll(new HttpLoadScenario(options).run());
+            }
+        } finally {
+            System.setOut(out);
+        }
+
+        reports.forEach(report -> report.print(out));
+        System.exit(reports.stream().allMatch(StressReport::passed) ? 0 : 1);
+    }
+
+    /**
+     * Command-line options shared by the scenarios.
+     */
+    record Options(String scenario, int threads, int seconds, int skus, int maxOrders, long seed, boolean journal,
+                   String url, List<Integer> concurrency) {
+
+        static Options parse(String[] args) {
+            String scenario = "all";
+            int threads = 64;
+            int seconds = 10;
+            int skus = 1000;
+            int maxOrders = 200_000;
+            long seed = System.nanoTime();
+            boolean journal = false;
+            String url = "http://localhost:8082";
+            List<Integer> concurrency = List.of(50, 200, 800);
+            for (String arg : args) {
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if (arg.startsWith("--threads=")) {
+                    threads = Integer.parseInt(value);
+                } else if (arg.startsWith("--seconds=")) {
+                    seconds = Integer.parseInt(value);
+                } else if (arg.startsWith("--skus=")) {
+                    skus = Integer.parseInt(value);
+                } else if (arg.startsWith("--orders=")) {
+                    maxOrders = Integer.parseInt(value);
+                } else if (arg.startsWith("--seed=")) {
+                    seed = Long.parseLong(value);
+                } else if (arg.equals("--journal")) {
+                    journal = true;
+                } else if (arg.startsWith("--url=")) {
+                    url = value;
+                } else if (arg.startsWith("--concurrency=")) {
+                    concurrency = Arrays.stream(value.split(",")).map(Integer::valueOf).toList();
+                } else if (List.of("inventory", "orders", "all", "http").contains(arg)) {
+                    scenario = arg;
+                } else {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            return new Options(scenario, threads, seconds, skus, maxOrders, seed, journal, url, concurrency);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.demo.stress;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operation counts and invariant violations of one scenario run.
+ *
+ * Thread-safe; workers record into it concurrently.
+ */
+public class StressReport {
+
+    // Violations beyond this are counted but not kept
+    private static final int MAX_KEPT_VIOLATIONS = 20;
+
+    private final String scenario;
+    private final Map<String, LongAdder> operations = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger violationCount = new AtomicInteger();
+    private long elapsedNanos;
+
+    public StressReport(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public void count(String operation) {
+        operations.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Count an operation and record how long it took.
+     */
+    public void count(String operation, long latencyNanos) {
+        count(operation);
+        latencies.computeIfAbsent(operation, key -> new ConcurrentLinkedQueue<>()).add(latencyNanos);
+    }
+
+    public void violation(String message) {
+        if (violationCount.incrementAndGet() <= MAX_KEPT_VIOLATIONS) {
+            violations.add(message);
+        }
+    }
+
+    public void elapsed(long nanos) {
+        this.elapsedNanos = nanos;
+    }
+
+    public boolean passed() {
+        return violationCount.get() == 0;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        long total = operations.values().stream().mapToLong(LongAdder::sum).sum();
+        out.printf("%n=== %s: %s ===%n", scenario, passed() ? "PASSED" : "FAILED");
+        out.printf("%-28s %12s %14s %10s %10s %10s%n", "operation", "count", "ops/s", "p50 ms", "p99 ms", "max ms");
+        new TreeMap<>(operations).forEach((operation, count) -> {
+            out.printf("%-28s %12d %14.0f", operation, count.sum(), count.sum() / seconds);
+            Queue<Long> samples = latencies.get(operation);
+            if (samples != null) {
+                long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+                out.printf(" %10.2f %10.2f %10.2f", percentile(sorted, 0.50), percentile(sorted, 0.99),
+                        sorted[sorted.length - 1] / 1e6);
+            }
+            out.println();
+        });
+        out.printf("%-28s %12d %14.0f%n", "total", total, total / seconds);
+        out.printf("elapsed: %.2f s%n", seconds);
+        if (!passed()) {
+            out.printf("%d invariant violations, first %d:%n", violationCount.get(), violations.size());
+            violations.forEach(violation -> out.println("  - " + violation));
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
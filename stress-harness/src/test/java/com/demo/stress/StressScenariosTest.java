@@ -0,0 +1,73 @@
+package com.demo.stress;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the in-process stress scenarios as part of the build, failing it on
+ * any invariant violation.
+ *
+ * Runs are kept short (3 s per scenario); harness options in stress.args
+ * override them for a longer run, e.g.
+ *   mvn -pl stress-harness verify -Dstress.args="--seconds=60 --threads=128"
+ */
+class StressScenariosTest {
+
+    private static PrintStream out;
+
+    @BeforeAll
+    static void silenceServices() {
+        // The services log every operation to stdout; keep the reports readable
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @AfterAll
+    static void restoreOut() {
+        System.setOut(out);
+    }
+
+    @Test
+    void inventory() throws Exception {
+        check(new InventoryStressScenario(options("inventory")).run());
+    }
+
+    @Test
+    void inventoryWithJournal() throws Exception {
+        check(new InventoryStressScenario(options("inventory", "--journal")).run());
+    }
+
+    @Test
+    void orders() throws Exception {
+        check(new OrderStressScenario(options("orders")).run());
+    }
+
+    private static StressHarness.Options options(String... scenario) {
+        List<String> args = new ArrayList<>(List.of("--seconds=3"));
+        args.addAll(Arrays.asList(scenario));
+        String extra = System.getProperty("stress.args", "").trim();
+        if (!extra.isEmpty()) {
+            args.addAll(Arrays.asList(extra.split("\\s+")));
+        }
+        return StressHarness.Options.parse(args.toArray(String[]::new));
+    }
+
+    private static void check(StressReport report) {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        report.print(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        String text = printed.toString(StandardCharsets.UTF_8);
+        out.print(text);
+        assertTrue(report.passed(), text);
+    }
+}
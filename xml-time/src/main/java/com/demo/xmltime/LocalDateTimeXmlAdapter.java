@@ -0,0 +1,25 @@
+package com.demo.xmltime;
+
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Binds xs:dateTime to LocalDateTime, see XmlTime for the semantics.
+ *
+ * Used by the generated JAXB types through a globalBindings customization:
+ * {@code <xjc:javaType name="java.time.LocalDateTime" xmlType="xs:dateTime"
+ * adapter="com.demo.xmltime.LocalDateTimeXmlAdapter"/>}
+ */
+public class LocalDateTimeXmlAdapter extends XmlAdapter<String, LocalDateTime> {
+
+    @Override
+    public LocalDateTime unmarshal(String value) {
+        return value != null ? XmlTime.parseDateTime(value) : null;
+    }
+
+    @Override
+    public String marshal(LocalDateTime value) {
+        return value != null ? XmlTime.printDateTime(value) : null;
+    }
+}
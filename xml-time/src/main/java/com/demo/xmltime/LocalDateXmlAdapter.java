@@ -0,0 +1,25 @@
+package com.demo.xmltime;
+
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+import java.time.LocalDate;
+
+/**
+ * Binds xs:date to LocalDate, see XmlTime for the semantics.
+ *
+ * Used by the generated JAXB types through a globalBindings customization:
+ * {@code <xjc:javaType name="java.time.LocalDate" xmlType="xs:date"
+ * adapter="com.demo.xmltime.LocalDateXmlAdapter"/>}
+ */
+public class LocalDateXmlAdapter extends XmlAdapter<String, LocalDate> {
+
+    @Override
+    public LocalDate unmarshal(String value) {
+        return value != null ? XmlTime.parseDate(value) : null;
+    }
+
+    @Override
+    public String marshal(LocalDate value) {
+        return value != null ? XmlTime.printDate(value) : null;
+    }
+}
@@ -0,0 +1,251 @@
+package com.demo.xmltime;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Conversions between java.time and the xs:date / xs:dateTime lexical forms.
+ *
+ * Replaces the XMLGregorianCalendar round trips (DatatypeFactory lookup,
+ * GregorianCalendar, ZonedDateTime) with direct parsing and printing of the
+ * lexical form: one LocalDateTime / LocalDate per parse, one String per
+ * print. The generated JAXB types use java.time through
+ * LocalDateTimeXmlAdapter and LocalDateXmlAdapter.
+ *
+ * The semantics are the ones the services have always had:
+ * - Parsing keeps the date and time as written; a timezone is validated
+ *   and dropped, as toGregorianCalendar().toZonedDateTime().toLocalDateTime() did
+ * - Fractions are kept to the millisecond, GregorianCalendar's precision;
+ *   further digits are truncated
+ * - 24:00:00 is midnight at the end of the day
+ * - Date-times are printed with three fraction digits and the offset of
+ *   the JVM's default zone at that time, "Z" for UTC; dates are printed
+ *   without a timezone
+ *
+ * Leading and trailing whitespace is ignored, as the XML Schema whitespace
+ * facet requires. Invalid values throw IllegalArgumentException, which
+ * JAXB reports as an unmarshalling error.
+ */
+public final class XmlTime {
+
+    // The default zone, read once: ZoneId.systemDefault() clones it on every call
+    private static final ZoneRules DEFAULT_ZONE_RULES = ZoneId.systemDefault().getRules();
+
+    private XmlTime() {
+    }
+
+    /**
+     * Parse an xs:dateTime.
+     *
+     * @param text e.g. 2024-12-15T10:30:00.123+05:30
+     * @return The date and time as written, to the millisecond
+     */
+    public static LocalDateTime parseDateTime(CharSequence text) {
+        CharSequence value = trim(text);
+        try {
+            int pos = yearEnd(value);
+            int year = parseYear(value, pos);
+            int month = field(value, pos, '-');
+            int day = field(value, pos + 3, '-');
+            int hour = field(value, pos + 6, 'T');
+            int minute = field(value, pos + 9, ':');
+            int second = field(value, pos + 12, ':');
+            pos += 15;
+
+            int millis = 0;
+            if (pos < value.length() && value.charAt(pos) == '.') {
+                int digits = 0;
+                while (++pos < value.length() && isDigit(value.charAt(pos))) {
+                    if (digits++ < 3) {
+                        millis = millis * 10 + value.charAt(pos) - '0';
+                    }
+                }
+                if (digits == 0) {
+                    throw invalid("xs:dateTime", text);
+                }
+                for (; digits < 3; digits++) {
+                    millis *= 10;
+                }
+            }
+            checkTimezone(value, pos, text, "xs:dateTime");
+
+            if (hour == 24) {
+                if (minute != 0 || second != 0 || millis != 0) {
+                    throw invalid("xs:dateTime", text);
+                }
+                return LocalDate.of(year, month, day).plusDays(1).atStartOfDay();
+            }
+            return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1_000_000);
+        } catch (DateTimeException | IndexOutOfBoundsException e) {
+            throw invalid("xs:dateTime", text);
+        }
+    }
+
+    /**
+     * Parse an xs:date.
+     *
+     * @param text e.g. 2024-12-15 or 2024-12-15Z
+     * @return The date as written
+     */
+    public static LocalDate parseDate(CharSequence text) {
+        CharSequence value = trim(text);
+        try {
+            int pos = yearEnd(value);
+            int year = parseYear(value, pos);
+            int month = field(value, pos, '-');
+            int day = field(value, pos + 3, '-');
+            checkTimezone(value, pos + 6, text, "xs:date");
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException | IndexOutOfBoundsException e) {
+            throw invalid("xs:date", text);
+        }
+    }
+
+    /**
+     * Print an xs:dateTime in the JVM's default zone.
+     *
+     * @param dateTime The local date and time
+     * @return e.g. 2024-12-15T10:30:00.120Z
+     */
+    public static String printDateTime(LocalDateTime dateTime) {
+        StringBuilder out = new StringBuilder(29);
+        appendDate(out, dateTime.toLocalDate());
+        out.append('T');
+        append2(out, dateTime.getHour());
+        out.append(':');
+        append2(out, dateTime.getMinute());
+        out.append(':');
+        append2(out, dateTime.getSecond());
+        int millis = dateTime.getNano() / 1_000_000;
+        out.append('.').append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10))
+                .append((char) ('0' + millis % 10));
+
+        ZoneOffset offset = DEFAULT_ZONE_RULES.getOffset(dateTime);
+        int minutes = offset.getTotalSeconds() / 60;
+        if (minutes == 0) {
+            out.append('Z');
+        } else {
+            out.append(minutes < 0 ? '-' : '+');
+            append2(out, Math.abs(minutes) / 60);
+            out.append(':');
+            append2(out, Math.abs(minutes) % 60);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Print an xs:date.
+     *
+     * @param date The date
+     * @return e.g. 2024-12-15
+     */
+    public static String printDate(LocalDate date) {
+        StringBuilder out = new StringBuilder(10);
+        appendDate(out, date);
+        return out.toString();
+    }
+
+    private static void appendDate(StringBuilder out, LocalDate date) {
+        int year = date.getYear();
+        if (year < 0) {
+            out.append('-');
+            year = -year;
+        }
+        if (year < 1000) {
+            out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        out.append(year).append('-');
+        append2(out, date.getMonthValue());
+        out.append('-');
+        append2(out, date.getDayOfMonth());
+    }
+
+    private static void append2(StringBuilder out, int value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * The position after the year: an optional '-' and at least four
+     * digits, more only without a leading zero.
+     */
+    private static int yearEnd(CharSequence value) {
+        int start = value.length() > 0 && value.charAt(0) == '-' ? 1 : 0;
+        int pos = start;
+        while (pos < value.length() && isDigit(value.charAt(pos))) {
+            pos++;
+        }
+        if (pos - start < 4 || pos - start > 9 || (pos - start > 4 && value.charAt(start) == '0')) {
+            throw new DateTimeException("Invalid year");
+        }
+        return pos;
+    }
+
+    private static int parseYear(CharSequence value, int end) {
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        int year = 0;
+        for (int i = start; i < end; i++) {
+            year = year * 10 + value.charAt(i) - '0';
+        }
+        return start == 1 ? -year : year;
+    }
+
+    /**
+     * A two-digit field preceded by a separator.
+     */
+    private static int field(CharSequence value, int separatorPos, char separator) {
+        char tens = value.charAt(separatorPos + 1);
+        char ones = value.charAt(separatorPos + 2);
+        if (value.charAt(separatorPos) != separator || !isDigit(tens) || !isDigit(ones)) {
+            throw new DateTimeException("Invalid field");
+        }
+        return (tens - '0') * 10 + ones - '0';
+    }
+
+    /**
+     * Validate the optional timezone (Z or +hh:mm / -hh:mm up to 14:00) that
+     * must end the value.
+     */
+    private static void checkTimezone(CharSequence value, int pos, CharSequence text, String type) {
+        int length = value.length() - pos;
+        if (length == 0 || (length == 1 && value.charAt(pos) == 'Z')) {
+            return;
+        }
+        char sign = value.charAt(pos);
+        if (length != 6 || (sign != '+' && sign != '-')) {
+            throw invalid(type, text);
+        }
+        int hours = field(value, pos, sign);
+        int minutes = field(value, pos + 3, ':');
+        if (hours > 14 || minutes > 59 || (hours == 14 && minutes != 0)) {
+            throw invalid(type, text);
+        }
+    }
+
+    private static CharSequence trim(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return start == 0 && end == text.length() ? text : text.subSequence(start, end);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(String type, CharSequence text) {
+        return new IllegalArgumentException("Invalid " + type + ": " + text);
+    }
+}
@@ -0,0 +1,109 @@
+package com.demo.xmltime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XmlTime against the XMLGregorianCalendar conversions it replaced.
+ *
+ * For parse and print of an xs:dateTime:
+ * - newInstance: DatatypeFactory.newInstance() on every call, as the
+ *   services did before XmlTime
+ * - cachedFactory: one DatatypeFactory, still through XMLGregorianCalendar
+ *   and GregorianCalendar
+ * - xmlTime: XmlTime
+ * and for xs:date, the cached factory against XmlTime.
+ *
+ * Run with mvn -pl xml-time -Pbench test; the default jmh.args add
+ * -prof gc for the bytes allocated per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class XmlTimeBenchmark {
+
+    private String dateTimeText;
+    private LocalDateTime dateTime;
+    private LocalDate date;
+    private DatatypeFactory factory;
+
+    @Setup
+    public void setUp() throws DatatypeConfigurationException {
+        dateTimeText = "2024-12-15T10:30:00.123+05:30";
+        dateTime = LocalDateTime.of(2024, 12, 15, 10, 30, 0, 123_000_000);
+        date = dateTime.toLocalDate();
+        factory = DatatypeFactory.newInstance();
+    }
+
+    // ==================== PARSE ====================
+
+    @Benchmark
+    public LocalDateTime parseNewInstance() throws DatatypeConfigurationException {
+        return toLocalDateTime(DatatypeFactory.newInstance().newXMLGregorianCalendar(dateTimeText));
+    }
+
+    @Benchmark
+    public LocalDateTime parseCachedFactory() {
+        return toLocalDateTime(factory.newXMLGregorianCalendar(dateTimeText));
+    }
+
+    @Benchmark
+    public LocalDateTime parseXmlTime() {
+        return XmlTime.parseDateTime(dateTimeText);
+    }
+
+    // ==================== PRINT ====================
+
+    @Benchmark
+    public String printNewInstance() throws DatatypeConfigurationException {
+        return DatatypeFactory.newInstance().newXMLGregorianCalendar(
+                GregorianCalendar.from(dateTime.atZone(ZoneId.systemDefault()))).toXMLFormat();
+    }
+
+    @Benchmark
+    public String printCachedFactory() {
+        return factory.newXMLGregorianCalendar(
+                GregorianCalendar.from(dateTime.atZone(ZoneId.systemDefault()))).toXMLFormat();
+    }
+
+    @Benchmark
+    public String printXmlTime() {
+        return XmlTime.printDateTime(dateTime);
+    }
+
+    // ==================== DATE ====================
+
+    @Benchmark
+    public LocalDate parseDateCachedFactory() {
+        XMLGregorianCalendar calendar = factory.newXMLGregorianCalendar("2024-12-15");
+        return LocalDate.of(calendar.getYear(), calendar.getMonth(), calendar.getDay());
+    }
+
+    @Benchmark
+    public LocalDate parseDateXmlTime() {
+        return XmlTime.parseDate("2024-12-15");
+    }
+
+    @Benchmark
+    public String printDateXmlTime() {
+        return XmlTime.printDate(date);
+    }
+
+    private static LocalDateTime toLocalDateTime(XMLGregorianCalendar calendar) {
+        return calendar.toGregorianCalendar().toZonedDateTime().toLocalDateTime();
+    }
+}
@@ -0,0 +1,228 @@
+package com.demo.xmltime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.GregorianCalendar;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for XmlTime: the lexical edge cases, and a round trip against the
+ * DatatypeFactory conversions the services used before.
+ */
+class XmlTimeTest {
+
+    // ==================== FRACTIONAL SECONDS ====================
+
+    @Test
+    void parsesFractionsToTheMillisecond() {
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30, 0, 100_000_000),
+                XmlTime.parseDateTime("2024-12-15T10:30:00.1"));
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30, 0, 120_000_000),
+                XmlTime.parseDateTime("2024-12-15T10:30:00.12"));
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30, 0, 123_000_000),
+                XmlTime.parseDateTime("2024-12-15T10:30:00.123"));
+    }
+
+    @Test
+    void truncatesFractionsBeyondTheMillisecond() {
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30, 59, 999_000_000),
+                XmlTime.parseDateTime("2024-12-15T10:30:59.999999999"));
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30, 0, 5_000_000),
+                XmlTime.parseDateTime("2024-12-15T10:30:00.0050000000000001"));
+    }
+
+    @Test
+    void printsThreeFractionDigits() {
+        String printed = XmlTime.printDateTime(LocalDateTime.of(2024, 12, 15, 10, 30, 0, 120_456_789));
+        assertEquals("2024-12-15T10:30:00.120", printed.substring(0, 23));
+    }
+
+    // ==================== TIMEZONES ====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "Z", "+00:00", "-00:00", "+05:30", "-08:00", "+14:00", "-14:00"})
+    void keepsTheTimeAsWrittenAndDropsTheTimezone(String timezone) {
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30),
+                XmlTime.parseDateTime("2024-12-15T10:30:00" + timezone));
+        assertEquals(LocalDate.of(2024, 12, 15), XmlTime.parseDate("2024-12-15" + timezone));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"+14:01", "+15:00", "-05:60", "+0530", "+05:3", "+5:30", "z", "UTC", "ZZ", "Z Z"})
+    void rejectsInvalidTimezones(String timezone) {
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDateTime("2024-12-15T10:30:00" + timezone));
+    }
+
+    @Test
+    void printsTheDefaultZoneOffset() {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 7, 1, 12, 0);
+        int minutes = ZoneId.systemDefault().getRules().getOffset(dateTime).getTotalSeconds() / 60;
+        String expected = minutes == 0 ? "Z" : String.format("%s%02d:%02d",
+                minutes < 0 ? "-" : "+", Math.abs(minutes) / 60, Math.abs(minutes) % 60);
+        assertEquals("2024-07-01T12:00:00.000" + expected, XmlTime.printDateTime(dateTime));
+    }
+
+    // ==================== YEARS ====================
+
+    @Test
+    void parsesNegativeYearsAsWritten() {
+        assertEquals(LocalDateTime.of(-44, 3, 15, 12, 0), XmlTime.parseDateTime("-0044-03-15T12:00:00"));
+        assertEquals(LocalDate.of(-44, 3, 15), XmlTime.parseDate("-0044-03-15"));
+    }
+
+    @Test
+    void parsesYearsBeyondFourDigits() {
+        assertEquals(LocalDateTime.of(12345, 1, 1, 0, 0), XmlTime.parseDateTime("12345-01-01T00:00:00Z"));
+        assertEquals(LocalDate.of(999_999_999, 12, 31), XmlTime.parseDate("999999999-12-31"));
+    }
+
+    @Test
+    void printsYearsPaddedToFourDigits() {
+        assertEquals("0001-01-01", XmlTime.printDate(LocalDate.of(1, 1, 1)));
+        assertEquals("0999-06-30", XmlTime.printDate(LocalDate.of(999, 6, 30)));
+        assertEquals("-0044-03-15", XmlTime.printDate(LocalDate.of(-44, 3, 15)));
+        assertEquals("12345-01-01", XmlTime.printDate(LocalDate.of(12345, 1, 1)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"024-01-01", "02024-01-01", "-024-01-01", "+2024-01-01", "1234567890-01-01"})
+    void rejectsMalformedYears(String date) {
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDate(date));
+    }
+
+    // ==================== LEAP DAYS ====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-02-29", "2000-02-29", "1600-02-29", "-0004-02-29"})
+    void acceptsLeapDays(String date) {
+        assertEquals(29, XmlTime.parseDate(date).getDayOfMonth());
+        assertEquals(29, XmlTime.parseDateTime(date + "T23:59:59.999").getDayOfMonth());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2023-02-29", "1900-02-29", "2100-02-29", "2024-02-30"})
+    void rejectsLeapDaysOfCommonYears(String date) {
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDate(date));
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDateTime(date + "T00:00:00"));
+    }
+
+    @Test
+    void readsMidnightAtTheEndOfTheDay() {
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), XmlTime.parseDateTime("2024-02-29T24:00:00"));
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), XmlTime.parseDateTime("2024-12-31T24:00:00.000Z"));
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDateTime("2024-12-31T24:00:01"));
+        assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDateTime("2024-12-31T24:00:00.001"));
+    }
+
+    // ==================== INVALID INPUT ====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "abc", "2024-12-15", "2024-12-15T", "2024-12-15T10:30",
+            "2024-12-15 10:30:00", "2024-1-15T10:30:00", "2024-12-5T10:30:00", "2024-13-15T10:30:00",
+            "2024-00-15T10:30:00", "2024-12-32T10:30:00", "2024-12-15T25:00:00", "2024-12-15T10:60:00",
+            "2024-12-15T10:30:60", "2024-12-15T10:30:00.", "2024-12-15T10:30:00.5.5", "2024-12-15T10:30:00Zjunk",
+            "2024/12/15T10:30:00", "2024-12-15t10:30:00", "２０２４-12-15T10:30:00"})
+    void rejectsInvalidDateTimes(String value) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDateTime(value));
+        assertEquals("Invalid xs:dateTime: " + value, e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2024-12", "2024-12-15T10:30:00", "2024-12-15ZZ", "2024-12-15+05:30:00", "20241215"})
+    void rejectsInvalidDates(String value) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> XmlTime.parseDate(value));
+        assertEquals("Invalid xs:date: " + value, e.getMessage());
+    }
+
+    @Test
+    void ignoresSurroundingWhitespace() {
+        assertEquals(LocalDateTime.of(2024, 12, 15, 10, 30), XmlTime.parseDateTime(" \t\n2024-12-15T10:30:00Z\r\n "));
+        assertEquals(LocalDate.of(2024, 12, 15), XmlTime.parseDate("\n  2024-12-15  \n"));
+    }
+
+    // ==================== AGAINST DATATYPEFACTORY ====================
+
+    /**
+     * Random lexical values parse to what
+     * toGregorianCalendar().toZonedDateTime().toLocalDateTime() gave.
+     */
+    @Test
+    void parsesLikeDatatypeFactory() throws Exception {
+        DatatypeFactory factory = DatatypeFactory.newInstance();
+        SplittableRandom random = new SplittableRandom(46);
+        for (int i = 0; i < 20_000; i++) {
+            String value = randomDateTime(random);
+            LocalDateTime expected = factory.newXMLGregorianCalendar(value)
+                    .toGregorianCalendar().toZonedDateTime().toLocalDateTime();
+            assertEquals(expected, XmlTime.parseDateTime(value), value);
+
+            String date = value.substring(0, value.indexOf('T'));
+            XMLGregorianCalendar calendar = factory.newXMLGregorianCalendar(date);
+            assertEquals(LocalDate.of(calendar.getYear(), calendar.getMonth(), calendar.getDay()),
+                    XmlTime.parseDate(date), date);
+        }
+    }
+
+    /**
+     * Random values print as DatatypeFactory printed them, and parse back
+     * to themselves at millisecond precision.
+     */
+    @Test
+    void printsLikeDatatypeFactoryAndRoundTrips() throws Exception {
+        DatatypeFactory factory = DatatypeFactory.newInstance();
+        SplittableRandom random = new SplittableRandom(64);
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(random.nextInt(1901, 2100), 1, 1, 0, 0)
+                    .plusSeconds(random.nextLong(366L * 24 * 3600))
+                    .plusNanos(random.nextInt(1_000_000_000));
+            LocalDateTime millis = dateTime.truncatedTo(ChronoUnit.MILLIS);
+
+            String printed = XmlTime.printDateTime(dateTime);
+            assertEquals(factory.newXMLGregorianCalendar(GregorianCalendar.from(millis.atZone(ZoneId.systemDefault())))
+                    .toXMLFormat(), printed, dateTime::toString);
+            assertEquals(millis, XmlTime.parseDateTime(printed), printed);
+
+            LocalDate date = dateTime.toLocalDate();
+            assertEquals(factory.newXMLGregorianCalendarDate(date.getYear(), date.getMonthValue(),
+                    date.getDayOfMonth(), DatatypeConstants.FIELD_UNDEFINED).toXMLFormat(), XmlTime.printDate(date));
+            assertEquals(date, XmlTime.parseDate(XmlTime.printDate(date)));
+        }
+    }
+
+    private static String randomDateTime(SplittableRandom random) {
+        StringBuilder value = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d:%02d",
+                random.nextInt(1, 10_000), random.nextInt(1, 13), random.nextInt(1, 29),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+        int digits = random.nextInt(-3, 10);
+        if (digits > 0) {
+            value.append('.');
+            for (int d = 0; d < digits; d++) {
+                value.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        switch (random.nextInt(3)) {
+            case 0 -> value.append('Z');
+            case 1 -> {
+                int minutes = random.nextInt(-14 * 60, 14 * 60 + 1);
+                value.append(String.format("%s%02d:%02d", minutes < 0 ? "-" : "+",
+                        Math.abs(minutes) / 60, Math.abs(minutes) % 60));
+            }
+            default -> {
+                // No timezone
+            }
+        }
+        return value.toString();
+    }
+}